@@ -0,0 +1,91 @@
+package com.transfer.benchmark;
+
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.scheduler.CompactTransferSet;
+import com.transfer.scheduler.HierarchicalTimingWheel;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.transfer.domain.OccurrenceCalculator.toEpochMinute;
+
+// Mémoire retenue par l'ensemble actif une fois chargé : tas occupé après GC complet, avant et
+// après le chargement, rapporté au transfert (compteur bytesPerTransfer). Les transferts lus sont
+// créés pendant le chargement ; seuls ceux que la structure garde en vie sont comptés.
+// Une seule itération mesurée : JMH additionne les compteurs EVENTS des itérations.
+//   mvn -Pbenchmarks test-compile exec:exec -Djmh.args="ActiveSetFootprint"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:+UseSerialGC"})
+public class ActiveSetFootprintBenchmark {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"wheel", "compact"})
+    private String structure;
+
+    // Garde la structure mesurée en vie jusqu'à l'invocation suivante
+    private Object retained;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerTransfer;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerTransfer = 0;
+        }
+    }
+
+    @Benchmark
+    public Object load(Footprint footprint) {
+        retained = null;
+        long before = usedHeap();
+        Object loaded = "wheel".equals(structure) ? loadWheel() : loadCompact();
+        footprint.bytesPerTransfer = (usedHeap() - before) / size;
+        retained = loaded;
+        return loaded;
+    }
+
+    private HierarchicalTimingWheel<RecurringTransfer> loadWheel() {
+        HierarchicalTimingWheel<RecurringTransfer> wheel =
+            new HierarchicalTimingWheel<>(toEpochMinute(BenchmarkTransfers.START));
+        List<RecurringTransfer> transfers = BenchmarkTransfers.daily(size);
+        transfers.forEach(transfer -> wheel.schedule(transfer.getId(), transfer, transfer.nextExecutionMinute()));
+        return wheel;
+    }
+
+    private CompactTransferSet loadCompact() {
+        CompactTransferSet compact = new CompactTransferSet(toEpochMinute(BenchmarkTransfers.START), size);
+        BenchmarkTransfers.daily(size).forEach(compact::schedule);
+        return compact;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
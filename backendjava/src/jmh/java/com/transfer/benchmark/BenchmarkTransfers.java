@@ -0,0 +1,68 @@
+package com.transfer.benchmark;
+
+import com.transfer.domain.RecurringFrequency;
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.infrastructure.firebase.TransactionRetryMetrics;
+import com.transfer.infrastructure.memory.InMemoryFaultInjector;
+import com.transfer.infrastructure.memory.InMemoryStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkTransfers {
+    static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private BenchmarkTransfers() {
+    }
+
+    // Transferts quotidiens répartis uniformément sur les 1440 minutes de la journée,
+    // avec un expéditeur pour 10 transferts et un bénéficiaire pour 5
+    static List<RecurringTransfer> daily(int count) {
+        List<RecurringTransfer> transfers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transfers.add(transfer(i, RecurringFrequency.daily, LocalTime.of((i / 60) % 24, i % 60)));
+        }
+        return transfers;
+    }
+
+    // Store mémoire sans latence contenant les transferts et tous leurs expéditeurs et bénéficiaires
+    static InMemoryStore store(Clock clock, List<RecurringTransfer> transfers) {
+        InMemoryStore store = new InMemoryStore(
+            clock,
+            new InMemoryFaultInjector(Duration.ZERO, Duration.ZERO, 0.0),
+            new TransactionRetryMetrics(new SimpleMeterRegistry()),
+            5,
+            1_000
+        );
+        for (int i = 0; i <= transfers.size() / 5; i++) {
+            store.saveUser("user-" + i, phone(i), 1_000_000_000_000.0);
+        }
+        transfers.forEach(store::saveTransfer);
+        return store;
+    }
+
+    static RecurringTransfer transfer(int index, RecurringFrequency frequency, LocalTime executionTime) {
+        RecurringTransfer transfer = RecurringTransfer.builder()
+            .id("transfer-" + index)
+            .fromUserId("user-" + (index / 10))
+            .toPhone(phone(index / 5))
+            .amount(1_000 + (index % 50) * 100)
+            .frequency(frequency)
+            .startDate(START)
+            .executionTime(executionTime)
+            .description("Benchmark")
+            .isActive(true)
+            .build();
+        transfer.setNextExecution(transfer.computeNextExecution(START));
+        return transfer;
+    }
+
+    private static String phone(int index) {
+        return "+22177" + String.format("%07d", index);
+    }
+}
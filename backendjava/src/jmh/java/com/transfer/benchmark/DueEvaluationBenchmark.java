@@ -0,0 +1,60 @@
+package com.transfer.benchmark;
+
+import com.transfer.domain.OccurrenceCalculator;
+import com.transfer.domain.RecurringFrequency;
+import com.transfer.domain.RecurringTransfer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+// Coût d'évaluation d'une échéance pour un transfert, par fréquence
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DueEvaluationBenchmark {
+    @Param({"daily", "weekly", "monthly", "yearly"})
+    private String frequency;
+
+    private RecurringTransfer transfer;
+    private LocalDateTime now;
+    private long nowMinute;
+
+    @Setup
+    public void setup() {
+        transfer = BenchmarkTransfers.transfer(1, RecurringFrequency.valueOf(frequency), LocalTime.of(10, 30));
+        transfer.setLastExecuted(BenchmarkTransfers.START.plusDays(40).withHour(10).withMinute(30));
+        now = BenchmarkTransfers.START.plusDays(41).withHour(10).withMinute(30);
+        nowMinute = OccurrenceCalculator.toEpochMinute(now);
+        transfer.setNextExecution(transfer.computeNextExecution(now));
+    }
+
+    @Benchmark
+    public boolean shouldExecuteNow() {
+        return transfer.shouldExecuteNow(now);
+    }
+
+    @Benchmark
+    public boolean isDueAt() {
+        return transfer.isDueAt(nowMinute);
+    }
+
+    @Benchmark
+    public LocalDateTime computeNextExecution() {
+        return transfer.computeNextExecution(now);
+    }
+}
@@ -0,0 +1,74 @@
+package com.transfer.benchmark;
+
+import com.google.cloud.Timestamp;
+import com.transfer.domain.RecurringFrequency;
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.domain.TransactionStatus;
+import com.transfer.infrastructure.firebase.TransferDocumentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Conversion document -> domaine et construction des documents transactions, avant (Legacy) et
+// après TransferDocumentCodec. À lancer avec -prof gc : comparer gc.alloc.rate.norm (octets
+// alloués par opération) entre les deux variantes. La conversion part des données déjà extraites
+// du document (getData()) : le décodage propre au SDK Firestore n'est pas mesuré.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FirebaseTransferMapperBenchmark {
+    private Map<String, Object> data;
+    private RecurringTransfer transfer;
+
+    @Setup
+    public void setup() {
+        data = new HashMap<>();
+        data.put("fromUserId", "user-1");
+        data.put("toPhone", "+221770000001");
+        data.put("amount", 2500.0);
+        data.put("frequency", "monthly");
+        data.put("startDate", Timestamp.parseTimestamp("2024-01-01T08:00:00Z"));
+        data.put("executionTime", Map.of("hour", 10L, "minute", 30L));
+        data.put("description", "Loyer");
+        data.put("lastExecuted", Timestamp.parseTimestamp("2024-03-01T10:30:00Z"));
+        data.put("nextExecution", Timestamp.parseTimestamp("2024-04-01T10:30:00Z"));
+        data.put("isActive", true);
+
+        transfer = BenchmarkTransfers.transfer(1, RecurringFrequency.monthly, LocalTime.of(10, 30));
+    }
+
+    @Benchmark
+    public RecurringTransfer toRecurringTransfer() {
+        return TransferDocumentCodec.decodeRecurringTransfer("transfer-1", data);
+    }
+
+    @Benchmark
+    public Map<String, Object> createTransactionMap() {
+        return TransferDocumentCodec.encodeTransaction(transfer, "user-2", TransactionStatus.pending);
+    }
+
+    @Benchmark
+    public RecurringTransfer toRecurringTransferLegacy() {
+        return LegacyTransferMapper.toRecurringTransfer("transfer-1", data);
+    }
+
+    @Benchmark
+    public Map<String, Object> createTransactionMapLegacy() {
+        return LegacyTransferMapper.createTransactionMap(transfer, "user-2");
+    }
+}
@@ -0,0 +1,100 @@
+package com.transfer.benchmark;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.FieldValue;
+import com.transfer.domain.RecurringFrequency;
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.domain.TransactionStatus;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+// Conversion telle qu'avant TransferDocumentCodec, gardée comme référence du benchmark et
+// ramenée aux données du document : champs revalidés puis relus un par un, fuseau relu à chaque
+// conversion, Timestamp converti via Date, map de transaction à la capacité par défaut.
+final class LegacyTransferMapper {
+    private LegacyTransferMapper() {
+    }
+
+    static RecurringTransfer toRecurringTransfer(String id, Map<String, Object> data) {
+        if (data == null) {
+            throw new IllegalArgumentException("Document data is null for ID: " + id);
+        }
+        validateRequiredFields(data);
+
+        return RecurringTransfer.builder()
+            .id(id)
+            .fromUserId((String) data.get("fromUserId"))
+            .toPhone((String) data.get("toPhone"))
+            .amount(((Number) data.get("amount")).doubleValue())
+            .frequency(RecurringFrequency.fromString((String) data.get("frequency")))
+            .startDate(timestampToLocalDateTime((Timestamp) data.get("startDate")))
+            .executionTime(parseExecutionTime(data.get("executionTime")))
+            .endDate(data.get("endDate") != null ?
+                    timestampToLocalDateTime((Timestamp) data.get("endDate")) : null)
+            .description((String) data.get("description"))
+            .lastExecuted(data.get("lastExecuted") != null ?
+                    timestampToLocalDateTime((Timestamp) data.get("lastExecuted")) : null)
+            .nextExecution(data.get("nextExecution") != null ?
+                    timestampToLocalDateTime((Timestamp) data.get("nextExecution")) : null)
+            .isActive((Boolean) data.get("isActive"))
+            .build();
+    }
+
+    static Map<String, Object> createTransactionMap(RecurringTransfer transfer, String toUserId) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", transfer.getId());
+        data.put("occurrenceId", transfer.occurrenceId());
+        data.put("scheduledAt", toTimestamp(transfer.getNextExecution()));
+        data.put("fromUserId", transfer.getFromUserId());
+        data.put("toUserId", toUserId);
+        data.put("amount", transfer.getAmount());
+        data.put("type", "recurringTransfer");
+        data.put("status", TransactionStatus.pending.name());
+        data.put("createdAt", FieldValue.serverTimestamp());
+        data.put("description", transfer.getDescription());
+        data.put("isCancelable", true);
+        data.put("cancelableUntil", null);
+        data.put("canceledAt", null);
+        data.put("failureReason", null);
+        data.put("retryCount", 0);
+        data.put("lastRetryAt", null);
+        return data;
+    }
+
+    private static void validateRequiredFields(Map<String, Object> data) {
+        StringBuilder missingFields = new StringBuilder();
+        for (String field : new String[] {"fromUserId", "toPhone", "amount", "frequency", "startDate", "executionTime"}) {
+            if (!data.containsKey(field) || data.get(field) == null) {
+                if (missingFields.length() > 0) {
+                    missingFields.append(", ");
+                }
+                missingFields.append(field);
+            }
+        }
+        if (missingFields.length() > 0) {
+            throw new IllegalArgumentException("Champs manquants dans le document: " + missingFields);
+        }
+    }
+
+    private static LocalDateTime timestampToLocalDateTime(Timestamp timestamp) {
+        return LocalDateTime.ofInstant(timestamp.toDate().toInstant(), ZoneId.systemDefault());
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        var instant = dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LocalTime parseExecutionTime(Object executionTime) {
+        Map<String, Long> timeMap = (Map<String, Long>) executionTime;
+        return LocalTime.of(timeMap.get("hour").intValue(), timeMap.get("minute").intValue());
+    }
+}
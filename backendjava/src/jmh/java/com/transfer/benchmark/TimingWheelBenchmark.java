@@ -0,0 +1,94 @@
+package com.transfer.benchmark;
+
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.scheduler.CompactTransferSet;
+import com.transfer.scheduler.HierarchicalTimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.transfer.domain.OccurrenceCalculator.fromEpochMinute;
+import static com.transfer.domain.OccurrenceCalculator.toEpochMinute;
+
+// Coût d'une minute de scheduling : avance de la roue avec réarmement des échus,
+// comparé au balayage complet de shouldExecuteNow qu'elle remplace
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TimingWheelBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int size;
+
+    private List<RecurringTransfer> transfers;
+    private HierarchicalTimingWheel<RecurringTransfer> wheel;
+    private CompactTransferSet compact;
+    private long minute;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        transfers = BenchmarkTransfers.daily(size);
+        minute = toEpochMinute(BenchmarkTransfers.START);
+        wheel = new HierarchicalTimingWheel<>(minute);
+        transfers.forEach(transfer ->
+            wheel.schedule(transfer.getId(), transfer, transfer.nextExecutionMinute()));
+        compact = new CompactTransferSet(minute, size);
+        transfers.forEach(compact::schedule);
+    }
+
+    @Benchmark
+    public int wheelAdvance() {
+        List<RecurringTransfer> due = wheel.advanceTo(minute);
+        // Échéance quotidienne : chaque transfert échu revient le lendemain à la même minute
+        for (RecurringTransfer transfer : due) {
+            wheel.schedule(transfer.getId(), transfer, minute + 1440);
+        }
+        minute++;
+        return due.size();
+    }
+
+    // Même avance sur l'ensemble en colonnes : seuls les échus sont matérialisés
+    @Benchmark
+    public int compactAdvance() {
+        List<RecurringTransfer> due = compact.advanceTo(minute);
+        for (RecurringTransfer transfer : due) {
+            transfer.setNextExecution(transfer.getNextExecution().plusDays(1));
+            compact.schedule(transfer);
+        }
+        minute++;
+        return due.size();
+    }
+
+    @Benchmark
+    public void fullScan(Blackhole blackhole) {
+        LocalDateTime now = fromEpochMinute(minute++);
+        for (RecurringTransfer transfer : transfers) {
+            blackhole.consume(transfer.shouldExecuteNow(now));
+        }
+    }
+
+    // Balayage complet sur l'échéance précalculée : une comparaison de long par transfert
+    @Benchmark
+    public void fullScanPrecomputed(Blackhole blackhole) {
+        long now = minute++;
+        for (RecurringTransfer transfer : transfers) {
+            blackhole.consume(transfer.isDueAt(now));
+        }
+    }
+}
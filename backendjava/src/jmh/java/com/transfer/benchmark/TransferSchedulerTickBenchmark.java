@@ -0,0 +1,103 @@
+package com.transfer.benchmark;
+
+import com.transfer.application.FirestoreCallGuard;
+import com.transfer.application.RetryPolicy;
+import com.transfer.application.TransferMetrics;
+import com.transfer.infrastructure.memory.InMemoryPartitionLeaseStore;
+import com.transfer.infrastructure.memory.InMemorySchedulerWatermarkStore;
+import com.transfer.infrastructure.memory.InMemoryStore;
+import com.transfer.infrastructure.memory.InMemoryTransferRetryQueue;
+import com.transfer.infrastructure.memory.InMemoryTransferRepository;
+import com.transfer.scheduler.CatchUpExecutor;
+import com.transfer.scheduler.DueTransferSource;
+import com.transfer.scheduler.IndexedDueTransferSource;
+import com.transfer.scheduler.PartitionManager;
+import com.transfer.scheduler.SequentialTransferDispatcher;
+import com.transfer.scheduler.TimingWheelDueTransferSource;
+import com.transfer.scheduler.TransferScheduler;
+import com.transfer.service.TransferService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+// Un tick complet du scheduler (recherche des échus, résolution, exécution, réarmement)
+// sur une horloge simulée avancée d'une minute par invocation.
+// SampleTime donne la distribution (p99) d'un tick, Throughput le nombre de ticks par seconde.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TransferSchedulerTickBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"index", "wheel"})
+    private String source;
+
+    private SteppingClock clock;
+    private TransferScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        clock = new SteppingClock(
+            BenchmarkTransfers.START.plusDays(1).atZone(ZoneId.systemDefault()).toInstant(),
+            ZoneId.systemDefault()
+        );
+        InMemoryStore store = BenchmarkTransfers.store(clock, BenchmarkTransfers.daily(size));
+        TransferMetrics transferMetrics = new TransferMetrics(new SimpleMeterRegistry());
+        RetryPolicy retryPolicy = new RetryPolicy(clock, 3, Duration.ofMinutes(5), 2.0, Duration.ofHours(6), 0.5);
+        InMemoryTransferRepository repository = new InMemoryTransferRepository(store, clock, transferMetrics,
+            new InMemoryTransferRetryQueue(), retryPolicy);
+        PartitionManager partitionManager = new PartitionManager(new InMemoryPartitionLeaseStore(), clock,
+            new SimpleMeterRegistry(), false, 1, Duration.ofSeconds(30), "benchmark", 10000);
+        InMemorySchedulerWatermarkStore watermarkStore = new InMemorySchedulerWatermarkStore();
+        DueTransferSource dueTransferSource = "wheel".equals(source)
+            ? new TimingWheelDueTransferSource(repository, clock)
+            : new IndexedDueTransferSource(repository, clock, watermarkStore, partitionManager);
+
+        TransferService transferService = new TransferService(repository, clock);
+        // Le moteur mémoire ne sature pas : garde désactivée
+        FirestoreCallGuard firestoreCallGuard = new FirestoreCallGuard(clock, new SimpleMeterRegistry(), false,
+            32, 4, 256, 0.7, Duration.ofSeconds(2), Duration.ofSeconds(5), 50, 20, 0.5, Duration.ofSeconds(30), 5);
+
+        SequentialTransferDispatcher transferDispatcher = new SequentialTransferDispatcher();
+        scheduler = new TransferScheduler(
+            repository,
+            transferService,
+            dueTransferSource,
+            transferDispatcher,
+            new SimpleMeterRegistry(),
+            clock,
+            partitionManager,
+            transferMetrics,
+            // Chaque tick avance l'horloge d'une minute : aucun écart à rattraper
+            new CatchUpExecutor(repository, transferService, dueTransferSource, partitionManager,
+                watermarkStore, firestoreCallGuard, transferDispatcher,
+                new SimpleMeterRegistry(), false, 20, Duration.ofHours(24)),
+            firestoreCallGuard
+        );
+        scheduler.refreshDueTransferSource();
+    }
+
+    @Benchmark
+    public void tick() {
+        scheduler.checkAndExecuteTransfers();
+        clock.advance(Duration.ofMinutes(1));
+    }
+}
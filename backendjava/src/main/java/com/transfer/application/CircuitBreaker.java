@@ -0,0 +1,132 @@
+package com.transfer.application;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+
+// Disjoncteur sur le taux d'échec des derniers appels : ouvert, il refuse tout pendant
+// openDuration, puis laisse passer quelques appels d'essai avant de se refermer
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        closed,
+        halfOpen,
+        open
+    }
+
+    private final Clock clock;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMillis;
+    private final int halfOpenCalls;
+    // Fenêtre glissante des derniers résultats (true : échec)
+    private final boolean[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+    private State state = State.closed;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(Clock clock, int windowSize, int minimumCalls, double failureRateThreshold,
+                          Duration openDuration, int halfOpenCalls) {
+        this.clock = clock;
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMillis = openDuration.toMillis();
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.open) {
+            if (clock.millis() - openedAt < openDurationMillis) {
+                return false;
+            }
+            transitionTo(State.halfOpen);
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.halfOpen) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        switch (state) {
+            case closed -> record(false);
+            case halfOpen -> {
+                if (++halfOpenSuccesses >= halfOpenCalls) {
+                    transitionTo(State.closed);
+                    resetWindow();
+                }
+            }
+            case open -> { }
+        }
+    }
+
+    public synchronized void onFailure() {
+        switch (state) {
+            case closed -> {
+                record(true);
+                if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+                    open();
+                }
+            }
+            case halfOpen -> open();
+            case open -> { }
+        }
+    }
+
+    // Ouvert et encore dans le délai : inutile de tenter un appel
+    public synchronized boolean isOpen() {
+        return state == State.open && clock.millis() - openedAt < openDurationMillis;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private void open() {
+        transitionTo(State.open);
+        openedAt = clock.millis();
+        resetWindow();
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[position]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[position] = failure;
+        if (failure) {
+            failures++;
+        }
+        position = (position + 1) % outcomes.length;
+    }
+
+    private void resetWindow() {
+        Arrays.fill(outcomes, false);
+        position = 0;
+        recorded = 0;
+        failures = 0;
+    }
+
+    private void transitionTo(State next) {
+        if (state != next) {
+            log.warn("Circuit Firestore : {} -> {}", state, next);
+            state = next;
+        }
+    }
+}
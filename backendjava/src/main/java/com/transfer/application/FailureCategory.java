@@ -0,0 +1,46 @@
+package com.transfer.application;
+
+import java.util.Locale;
+
+// Regroupe les motifs d'échec (texte libre, souvent un message d'exception) en catégories
+// bornées, utilisables comme tag de métrique
+public enum FailureCategory {
+    recipientNotFound,
+    insufficientFunds,
+    contention,
+    timeout,
+    unavailable,
+    other;
+
+    public static FailureCategory fromReason(String reason) {
+        if (reason == null) {
+            return other;
+        }
+        String normalized = reason.toLowerCase(Locale.ROOT);
+        if (normalized.contains("destinataire non trouvé") || normalized.contains("destinataire n'existe plus")) {
+            return recipientNotFound;
+        }
+        if (normalized.contains("solde insuffisant")) {
+            return insufficientFunds;
+        }
+        if (normalized.contains("aborted") || normalized.contains("contention")) {
+            return contention;
+        }
+        if (normalized.contains("deadline") || normalized.contains("timeout") || normalized.contains("timed out")) {
+            return timeout;
+        }
+        if (normalized.contains("unavailable") || normalized.contains("resource_exhausted")) {
+            return unavailable;
+        }
+        return other;
+    }
+
+    // Échecs susceptibles de passer plus tard : solde rechargé, Firestore rétabli.
+    // Un destinataire inconnu ou une erreur inclassable ne sont pas relancés.
+    public boolean isRetryable() {
+        return switch (this) {
+            case insufficientFunds, contention, timeout, unavailable -> true;
+            case recipientNotFound, other -> false;
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.transfer.application;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+// Protège Firestore quand il ralentit ou limite le débit : limite de concurrence adaptative
+// et disjoncteur autour des appels d'exécution. Un appel refusé lève FirestoreUnavailableException
+// sans toucher à Firestore ; le scheduler reporte alors le transfert au lieu de l'écrire en échec.
+@Component
+public class FirestoreCallGuard {
+    private static final Set<StatusCode.Code> OVERLOAD_CODES = Set.of(
+        StatusCode.Code.RESOURCE_EXHAUSTED,
+        StatusCode.Code.UNAVAILABLE,
+        StatusCode.Code.DEADLINE_EXCEEDED
+    );
+
+    @FunctionalInterface
+    public interface FirestoreCall<T> {
+        T call() throws InterruptedException, ExecutionException;
+    }
+
+    private final boolean enabled;
+    private final long acquireTimeoutNanos;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter rejectedByLimit;
+    private final Counter rejectedByCircuit;
+
+    public FirestoreCallGuard(
+        Clock clock,
+        MeterRegistry meterRegistry,
+        @Value("${transfer.firestore.guard.enabled:true}") boolean enabled,
+        @Value("${transfer.firestore.guard.initial-limit:32}") int initialLimit,
+        @Value("${transfer.firestore.guard.min-limit:4}") int minLimit,
+        @Value("${transfer.firestore.guard.max-limit:256}") int maxLimit,
+        @Value("${transfer.firestore.guard.backoff-ratio:0.7}") double backoffRatio,
+        @Value("${transfer.firestore.guard.latency-threshold:2s}") Duration latencyThreshold,
+        @Value("${transfer.firestore.guard.acquire-timeout:5s}") Duration acquireTimeout,
+        @Value("${transfer.firestore.guard.circuit.window-size:50}") int windowSize,
+        @Value("${transfer.firestore.guard.circuit.minimum-calls:20}") int minimumCalls,
+        @Value("${transfer.firestore.guard.circuit.failure-rate:0.5}") double failureRate,
+        @Value("${transfer.firestore.guard.circuit.open-duration:30s}") Duration openDuration,
+        @Value("${transfer.firestore.guard.circuit.half-open-calls:5}") int halfOpenCalls
+    ) {
+        this.enabled = enabled;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoffRatio,
+            latencyThreshold.toNanos());
+        this.circuitBreaker = new CircuitBreaker(clock, windowSize, minimumCalls, failureRate, openDuration,
+            halfOpenCalls);
+        this.rejectedByLimit = Counter.builder("transfer.firestore.rejected")
+            .description("Appels Firestore refusés côté client, reportés")
+            .tag("reason", "limit")
+            .register(meterRegistry);
+        this.rejectedByCircuit = Counter.builder("transfer.firestore.rejected")
+            .description("Appels Firestore refusés côté client, reportés")
+            .tag("reason", "circuit")
+            .register(meterRegistry);
+        Gauge.builder("transfer.firestore.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+            .description("Limite de concurrence adaptative des appels Firestore")
+            .register(meterRegistry);
+        Gauge.builder("transfer.firestore.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+            .description("Appels Firestore en cours")
+            .register(meterRegistry);
+        // 0 : fermé, 1 : demi-ouvert, 2 : ouvert
+        Gauge.builder("transfer.firestore.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+            .description("État du disjoncteur Firestore")
+            .register(meterRegistry);
+    }
+
+    public <T> T call(FirestoreCall<T> call) throws InterruptedException, ExecutionException {
+        if (!enabled) {
+            return call.call();
+        }
+        if (!limiter.tryAcquire(acquireTimeoutNanos)) {
+            rejectedByLimit.increment();
+            throw new FirestoreUnavailableException("Limite de concurrence Firestore atteinte, appel reporté");
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            limiter.cancel();
+            rejectedByCircuit.increment();
+            throw new FirestoreUnavailableException("Circuit Firestore ouvert, appel reporté");
+        }
+
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            return call.call();
+        } catch (Exception e) {
+            overloaded = isOverload(e);
+            throw e;
+        } finally {
+            limiter.release(System.nanoTime() - start, overloaded);
+            if (overloaded) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+        }
+    }
+
+    // Le scheduler ne lance pas d'exécution tant que le circuit est ouvert
+    public boolean isOpen() {
+        return enabled && circuitBreaker.isOpen();
+    }
+
+    // Surcharge ou indisponibilité de Firestore, par opposition aux erreurs métier
+    // (solde, destinataire) ou de contention qui ne disent rien de sa santé
+    public static boolean isOverload(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FirestoreUnavailableException || cause instanceof TimeoutException) {
+                return true;
+            }
+            if (cause instanceof ApiException apiException
+                && OVERLOAD_CODES.contains(apiException.getStatusCode().getCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
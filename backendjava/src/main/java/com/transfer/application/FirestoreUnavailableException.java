@@ -0,0 +1,14 @@
+package com.transfer.application;
+
+// Firestore surchargé ou circuit ouvert : l'opération n'a pas eu lieu et doit être reportée,
+// ce n'est pas un échec du transfert
+public class FirestoreUnavailableException extends TransferException {
+
+    public FirestoreUnavailableException(String message) {
+        super(message);
+    }
+
+    public FirestoreUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,58 @@
+package com.transfer.application;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Backoff exponentiel des relances : initialDelay * multiplier^retryCount, plafonné à maxDelay,
+// dont une part tirée au hasard (jitter) pour que les échecs d'un même tick ne reviennent pas ensemble
+@Component
+public class RetryPolicy {
+    private final Clock clock;
+    private final int maxAttempts;
+    private final Duration initialDelay;
+    private final double multiplier;
+    private final Duration maxDelay;
+    private final double jitter;
+
+    public RetryPolicy(
+        Clock clock,
+        @Value("${transfer.retry.max-attempts:3}") int maxAttempts,
+        @Value("${transfer.retry.initial-delay:5m}") Duration initialDelay,
+        @Value("${transfer.retry.multiplier:2.0}") double multiplier,
+        @Value("${transfer.retry.max-delay:6h}") Duration maxDelay,
+        @Value("${transfer.retry.jitter:0.5}") double jitter
+    ) {
+        this.clock = clock;
+        this.maxAttempts = maxAttempts;
+        this.initialDelay = initialDelay;
+        this.multiplier = multiplier;
+        this.maxDelay = maxDelay;
+        this.jitter = Math.max(0, Math.min(1, jitter));
+    }
+
+    // Date de la prochaine tentative après retryCount tentatives ; vide si le motif n'est pas
+    // relançable ou si les tentatives sont épuisées
+    public Optional<Instant> nextAttempt(String reason, int retryCount) {
+        if (retryCount >= maxAttempts || !FailureCategory.fromReason(reason).isRetryable()) {
+            return Optional.empty();
+        }
+        return Optional.of(clock.instant().plus(delay(retryCount)));
+    }
+
+    // Tentative qui n'a pas eu lieu (Firestore indisponible) : reportée sans être décomptée
+    public Instant postponed() {
+        return clock.instant().plus(delay(0));
+    }
+
+    Duration delay(int retryCount) {
+        double base = Math.min(maxDelay.toMillis(), initialDelay.toMillis() * Math.pow(multiplier, retryCount));
+        double jittered = base * (1 - jitter * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis((long) jittered);
+    }
+}
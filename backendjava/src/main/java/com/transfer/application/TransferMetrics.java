@@ -0,0 +1,120 @@
+package com.transfer.application;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Métriques du pipeline d'exécution : latence par étape, transferts dus/examinés,
+// échecs par catégorie et exécutions en cours
+@Component
+public class TransferMetrics {
+
+    public enum Stage {
+        phoneLookup,
+        balanceScreening,
+        transaction,
+        notificationWrite
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<FailureCategory, Counter> failures = new EnumMap<>(FailureCategory.class);
+    private final Counter scanned;
+    private final Counter due;
+    private final Timer lateness;
+    private final Timer tickLag;
+    private final Counter missedTicks;
+    private final Counter overruns;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public TransferMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("transfer.stage.duration")
+                .description("Latence des étapes de l'exécution d'un transfert")
+                .tag("stage", stage.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        }
+        for (FailureCategory category : FailureCategory.values()) {
+            failures.put(category, Counter.builder("transfer.failures")
+                .tag("category", category.name())
+                .register(meterRegistry));
+        }
+        this.scanned = Counter.builder("transfer.scheduler.scanned")
+            .description("Transferts renvoyés par la source des échéances")
+            .register(meterRegistry);
+        this.due = Counter.builder("transfer.scheduler.due")
+            .description("Transferts dus exécutés par cette instance")
+            .register(meterRegistry);
+        this.lateness = Timer.builder("transfer.execution.lateness")
+            .description("Écart entre l'échéance prévue et le début de l'exécution")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.tickLag = Timer.builder("transfer.scheduler.tick.lag")
+            .description("Retard du début du tick sur sa minute")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.missedTicks = Counter.builder("transfer.scheduler.tick.missed")
+            .description("Minutes sans tick, laissées au rattrapage")
+            .register(meterRegistry);
+        this.overruns = Counter.builder("transfer.scheduler.tick.overruns")
+            .description("Ticks plus longs qu'une minute")
+            .register(meterRegistry);
+        Gauge.builder("transfer.inflight", inFlight, AtomicInteger::get)
+            .description("Transferts en cours d'exécution")
+            .register(meterRegistry);
+    }
+
+    public <T> T time(Stage stage, Supplier<T> operation) {
+        return stageTimers.get(stage).record(operation);
+    }
+
+    public void time(Stage stage, Runnable operation) {
+        stageTimers.get(stage).record(operation);
+    }
+
+    // Pour les étapes asynchrones : l'appelant arrête l'échantillon à la complétion
+    public Timer stageTimer(Stage stage) {
+        return stageTimers.get(stage);
+    }
+
+    public void recordFailure(String reason) {
+        failures.get(FailureCategory.fromReason(reason)).increment();
+    }
+
+    public void recordTick(int scannedCount, int dueCount) {
+        scanned.increment(scannedCount);
+        due.increment(dueCount);
+    }
+
+    // Minutes sautées depuis le tick précédent et retard du tick sur sa minute
+    public void recordTickStart(long missedMinutes, Duration lag) {
+        if (missedMinutes > 0) {
+            missedTicks.increment(missedMinutes);
+        }
+        tickLag.record(lag);
+    }
+
+    public void recordOverrun() {
+        overruns.increment();
+    }
+
+    public void recordLateness(Duration delay) {
+        lateness.record(delay.isNegative() ? Duration.ZERO : delay);
+    }
+
+    public void executionStarted(int count) {
+        inFlight.addAndGet(count);
+    }
+
+    public void executionFinished(int count) {
+        inFlight.addAndGet(-count);
+    }
+}
@@ -0,0 +1,16 @@
+package com.transfer.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class ClockConfig {
+
+    // Horloge partagée par le scheduler et les services, remplaçable dans les benchmarks
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
@@ -0,0 +1,9 @@
+package com.transfer.domain;
+
+// Résultat de la transaction d'exécution d'une échéance
+public enum ExecutionOutcome {
+    executed,
+    insufficientFunds,
+    // Échéance déjà réclamée dans le registre : exécutée par un autre tick ou une autre instance
+    alreadyExecuted
+}
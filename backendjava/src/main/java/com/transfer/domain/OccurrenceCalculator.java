@@ -0,0 +1,88 @@
+package com.transfer.domain;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+
+// Calcul direct des échéances d'un transfert : une date candidate par fréquence, reportée d'une
+// période si elle tombe avant la borne, sans avancer jour par jour. Les échéances s'expriment aussi
+// en minutes depuis l'epoch (fuseau du serveur) pour que les tests d'échéance soient des comparaisons
+// de long.
+public final class OccurrenceCalculator {
+    // Plus aucune échéance : jamais atteinte par un tick
+    public static final long NO_OCCURRENCE = Long.MAX_VALUE;
+
+    private OccurrenceCalculator() {
+    }
+
+    // Première échéance à partir de from (inclus), au plus tôt à startDate. Null après endDate.
+    public static LocalDateTime nextOccurrence(RecurringTransfer transfer, LocalDateTime from) {
+        LocalDateTime start = transfer.getStartDate();
+        LocalDateTime lowerBound = from.isBefore(start) ? start : from;
+        LocalDate date = lowerBound.toLocalDate();
+        LocalTime time = transfer.getExecutionTime();
+
+        LocalDateTime candidate = switch (transfer.getFrequency()) {
+            case daily -> {
+                LocalDateTime sameDay = date.atTime(time);
+                yield sameDay.isBefore(lowerBound) ? sameDay.plusDays(1) : sameDay;
+            }
+            case weekly -> {
+                LocalDateTime sameWeek = date.with(TemporalAdjusters.nextOrSame(start.getDayOfWeek())).atTime(time);
+                yield sameWeek.isBefore(lowerBound) ? sameWeek.plusWeeks(1) : sameWeek;
+            }
+            case monthly -> {
+                YearMonth month = YearMonth.from(date);
+                LocalDateTime sameMonth = clampToMonth(month, start.getDayOfMonth()).atTime(time);
+                yield sameMonth.isBefore(lowerBound)
+                    ? clampToMonth(month.plusMonths(1), start.getDayOfMonth()).atTime(time)
+                    : sameMonth;
+            }
+            case yearly -> {
+                // MonthDay.atYear ramène le 29 février au 28 les années non bissextiles
+                MonthDay anniversary = MonthDay.from(start);
+                LocalDateTime sameYear = anniversary.atYear(date.getYear()).atTime(time);
+                yield sameYear.isBefore(lowerBound) ? anniversary.atYear(date.getYear() + 1).atTime(time) : sameYear;
+            }
+        };
+
+        LocalDateTime end = transfer.getEndDate();
+        return end != null && candidate.isAfter(end) ? null : candidate;
+    }
+
+    public static long nextOccurrenceMinute(RecurringTransfer transfer, long fromMinute) {
+        return toEpochMinute(nextOccurrence(transfer, fromEpochMinute(fromMinute)));
+    }
+
+    // Début de la période suivant une exécution : une seule exécution par jour, semaine, mois ou année
+    public static LocalDateTime startOfNextPeriod(RecurringFrequency frequency, LocalDateTime lastExecuted) {
+        LocalDate date = lastExecuted.toLocalDate();
+        LocalDate nextPeriod = switch (frequency) {
+            case daily, weekly -> date.plusDays(1);
+            case monthly -> date.withDayOfMonth(1).plusMonths(1);
+            case yearly -> date.withDayOfYear(1).plusYears(1);
+        };
+        return nextPeriod.atStartOfDay();
+    }
+
+    public static long toEpochMinute(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return NO_OCCURRENCE;
+        }
+        return Math.floorDiv(dateTime.atZone(ZoneId.systemDefault()).toEpochSecond(), 60);
+    }
+
+    public static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochMinute * 60), ZoneId.systemDefault());
+    }
+
+    // Les mois courts exécutent le transfert le dernier jour du mois
+    private static LocalDate clampToMonth(YearMonth month, int dayOfMonth) {
+        return month.atDay(Math.min(dayOfMonth, month.lengthOfMonth()));
+    }
+}
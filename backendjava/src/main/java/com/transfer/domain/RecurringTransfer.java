@@ -1,14 +1,23 @@
 package com.transfer.domain;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
 
 @Data
 @Builder
 public class RecurringTransfer {
+    private static final DateTimeFormatter OCCURRENCE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmm");
+    private static final long UNKNOWN_MINUTE = Long.MIN_VALUE;
+
     private String id;
     private String fromUserId;
     private String toPhone;
@@ -28,36 +37,70 @@ public class RecurringTransfer {
     
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime lastExecuted;
+
+    // Prochaine échéance persistée, utilisée comme index par le scheduler
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime nextExecution;
+
+    // nextExecution en minutes depuis l'epoch, mis à jour par setNextExecution
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private long nextExecutionMinute = UNKNOWN_MINUTE;
     
     private boolean isActive;
 
+    // Dû à cette minute ou en retard : une comparaison de long, l'échéance étant précalculée.
+    // Les règles de fréquence (fin de mois, semaine, bornes) sont appliquées au calcul de nextExecution.
+    public boolean isDueAt(long epochMinute) {
+        return isActive && nextExecutionMinute() <= epochMinute;
+    }
+
     public boolean shouldExecuteNow(LocalDateTime now) {
-        if (!isActive || now.isBefore(startDate)) {
-            return false;
-        }
+        return isDueAt(OccurrenceCalculator.toEpochMinute(now));
+    }
 
-        if (endDate != null && now.isAfter(endDate)) {
-            return false;
+    public void setNextExecution(LocalDateTime nextExecution) {
+        this.nextExecution = nextExecution;
+        this.nextExecutionMinute = OccurrenceCalculator.toEpochMinute(nextExecution);
+    }
+
+    public long nextExecutionMinute() {
+        long minute = nextExecutionMinute;
+        if (minute == UNKNOWN_MINUTE) {
+            // Transfert construit par le builder : conversion au premier accès
+            minute = OccurrenceCalculator.toEpochMinute(nextExecution);
+            nextExecutionMinute = minute;
         }
+        return minute;
+    }
 
-        if (now.getHour() != executionTime.getHour() || 
-            now.getMinute() != executionTime.getMinute()) {
-            return false;
+    // Identifiant d'une échéance précise (transfert + instant prévu) : clé du registre
+    // d'idempotence et des documents transactions, une exécution par échéance au plus
+    public String occurrenceId() {
+        if (nextExecution == null) {
+            throw new IllegalStateException("Aucune échéance prévue pour le transfert " + id);
         }
+        return id + "_" + nextExecution.format(OCCURRENCE_FORMAT);
+    }
 
-        LocalDateTime lastExec = lastExecuted != null ? lastExecuted : startDate.minusDays(1);
-
-        return switch (frequency) {
-            case daily -> now.toLocalDate().isAfter(lastExec.toLocalDate());
-            case weekly -> now.toLocalDate().minusDays(7).isAfter(lastExec.toLocalDate()) &&
-                          now.getDayOfWeek() == startDate.getDayOfWeek();
-            case monthly -> (now.getYear() > lastExec.getYear() ||
-                           (now.getYear() == lastExec.getYear() && 
-                            now.getMonthValue() > lastExec.getMonthValue())) &&
-                           now.getDayOfMonth() == startDate.getDayOfMonth();
-            case yearly -> now.getYear() > lastExec.getYear() &&
-                          now.getMonthValue() == startDate.getMonthValue() &&
-                          now.getDayOfMonth() == startDate.getDayOfMonth();
-        };
+    // Prochaine échéance à partir de from (inclus) : une seule exécution par période
+    // depuis lastExecuted, bornée par startDate et endDate. Null si plus aucune échéance.
+    public LocalDateTime computeNextExecution(LocalDateTime from) {
+        return computeNextExecution(lastExecuted, from);
+    }
+
+    // Même calcul pour une dernière exécution donnée, sans modifier le transfert
+    public LocalDateTime computeNextExecution(LocalDateTime lastExecuted, LocalDateTime from) {
+        LocalDateTime lowerBound = from;
+        if (lastExecuted != null) {
+            LocalDateTime nextPeriod = OccurrenceCalculator.startOfNextPeriod(frequency, lastExecuted);
+            if (nextPeriod.isAfter(lowerBound)) {
+                lowerBound = nextPeriod;
+            }
+        }
+        return OccurrenceCalculator.nextOccurrence(this, lowerBound);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+package com.transfer.domain;
+
+import java.time.LocalDateTime;
+
+// Échéance d'un transfert une fois l'échéance courante traitée, avec succès ou non. Calculée avant
+// l'exécution pour être écrite avec son résultat (transaction, lot d'échec) plutôt que par une
+// mise à jour séparée ; le transfert n'est modifié qu'une fois l'exécution terminée.
+public record ScheduleAdvance(String transferId, LocalDateTime lastExecuted, LocalDateTime nextExecution) {
+    // Exécution datée de executedAt, échéance suivante cherchée à partir de from
+    public static ScheduleAdvance of(RecurringTransfer transfer, LocalDateTime executedAt, LocalDateTime from) {
+        return new ScheduleAdvance(transfer.getId(), executedAt, transfer.computeNextExecution(executedAt, from));
+    }
+
+    public void applyTo(RecurringTransfer transfer) {
+        transfer.setLastExecuted(lastExecuted);
+        transfer.setNextExecution(nextExecution);
+    }
+}
@@ -0,0 +1,79 @@
+package com.transfer.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Cache téléphone -> userId devant les requêtes sur la collection users.
+// Les numéros inconnus sont aussi mis en cache, avec une durée de vie plus courte.
+@Component
+public class PhoneLookupCache {
+    private final Cache<String, Optional<String>> cache;
+
+    public PhoneLookupCache(
+        MeterRegistry meterRegistry,
+        @Value("${transfer.phone-cache.maximum-size:100000}") long maximumSize,
+        @Value("${transfer.phone-cache.ttl:10m}") Duration ttl,
+        @Value("${transfer.phone-cache.negative-ttl:1m}") Duration negativeTtl
+    ) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new Expiry<String, Optional<String>>() {
+                @Override
+                public long expireAfterCreate(String phone, Optional<String> userId, long currentTime) {
+                    return userId.isPresent() ? ttl.toNanos() : negativeTtl.toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String phone, Optional<String> userId, long currentTime, long currentDuration) {
+                    return expireAfterCreate(phone, userId, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String phone, Optional<String> userId, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "phoneLookup");
+    }
+
+    // Retourne le userId (ou null si aucun utilisateur) en interrogeant loader en cas d'absence
+    public String resolve(String phone, Function<String, String> loader) {
+        return cache.get(phone, key -> Optional.ofNullable(loader.apply(key))).orElse(null);
+    }
+
+    // Null si le numéro n'est pas en cache, Optional.empty() si le numéro est connu comme inexistant
+    public Optional<String> getIfPresent(String phone) {
+        return cache.getIfPresent(phone);
+    }
+
+    public void put(String phone, String userId) {
+        cache.put(phone, Optional.ofNullable(userId));
+    }
+
+    public void invalidate(String phone) {
+        cache.invalidate(phone);
+    }
+
+    public void invalidateUser(String userId) {
+        cache.asMap().values().removeIf(cached -> cached.isPresent() && cached.get().equals(userId));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
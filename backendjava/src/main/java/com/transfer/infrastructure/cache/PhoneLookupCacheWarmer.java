@@ -0,0 +1,46 @@
+package com.transfer.infrastructure.cache;
+
+import com.transfer.ports.TransferRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Précharge au démarrage les numéros des bénéficiaires de tous les transferts actifs
+@Slf4j
+@Component
+@Profile("!inmemory")
+@RequiredArgsConstructor
+public class PhoneLookupCacheWarmer {
+    private final TransferRepository transferRepository;
+    private final PhoneLookupCache phoneLookupCache;
+
+    @Value("${transfer.phone-cache.warmup-batch-size:3000}")
+    private int warmupBatchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            Set<String> distinctPhones = new LinkedHashSet<>();
+            transferRepository.forEachActiveTransfer(transfer -> distinctPhones.add(transfer.getToPhone()));
+            List<String> phones = new ArrayList<>(distinctPhones);
+
+            // Chaque paquet est résolu en requêtes "in" parallèles ; les paquets se suivent
+            // pour ne pas saturer Firestore
+            for (int from = 0; from < phones.size(); from += warmupBatchSize) {
+                transferRepository.findUserIdsByPhones(phones.subList(from, Math.min(from + warmupBatchSize, phones.size())));
+            }
+            log.info("Cache des numéros préchargé : {} numéros, {} entrées", phones.size(), phoneLookupCache.size());
+        } catch (Exception e) {
+            log.error("Erreur lors du préchargement du cache des numéros: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.transfer.infrastructure.firebase;
+
+import com.google.cloud.firestore.Firestore;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.cloud.FirestoreClient;
+import com.transfer.application.TransferException;
+import com.transfer.application.TransferMetrics;
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.infrastructure.cache.PhoneLookupCache;
+import com.transfer.domain.TransactionStatus;
+import com.transfer.ports.AsyncTransferRepository;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.transfer.infrastructure.firebase.FirestoreFutures.toCompletableFuture;
+
+// Variante non bloquante de FirebaseTransferRepository : les ApiFuture Firestore sont chaînés
+// au lieu d'être attendus, ce qui permet d'émettre en parallèle les écritures indépendantes.
+// L'exécution d'un transfert reste bloquante : elle passe par la garde Firestore et la file de relance.
+@Repository
+@Profile("!inmemory")
+public class FirebaseAsyncTransferRepository implements AsyncTransferRepository {
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseAsyncTransferRepository.class);
+    private final Firestore firestore;
+
+    private final PhoneLookupCache phoneLookupCache;
+    private final NotificationBatchWriter notificationBatchWriter;
+    private final TransferMetrics transferMetrics;
+
+    @Autowired
+    public FirebaseAsyncTransferRepository(
+        FirebaseApp firebaseApp,
+        PhoneLookupCache phoneLookupCache,
+        NotificationBatchWriter notificationBatchWriter,
+        TransferMetrics transferMetrics
+    ) {
+        this.firestore = FirestoreClient.getFirestore();
+        this.phoneLookupCache = phoneLookupCache;
+        this.notificationBatchWriter = notificationBatchWriter;
+        this.transferMetrics = transferMetrics;
+    }
+
+    @Override
+    public CompletableFuture<String> findUserIdByPhone(String phone) {
+        Optional<String> cached = phoneLookupCache.getIfPresent(phone);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.orElse(null));
+        }
+
+        Timer.Sample sample = Timer.start();
+        return toCompletableFuture(firestore.collection("users").whereEqualTo("phone", phone).get())
+            .whenComplete((query, error) -> sample.stop(transferMetrics.stageTimer(TransferMetrics.Stage.phoneLookup)))
+            .thenApply(query -> {
+                String userId = query.isEmpty() ? null : query.getDocuments().get(0).getId();
+                phoneLookupCache.put(phone, userId);
+                return userId;
+            })
+            .exceptionally(e -> {
+                throw new CompletionException(
+                    new TransferException("Erreur lors de la recherche de l'utilisateur par téléphone", e));
+            });
+    }
+
+    @Override
+    public CompletableFuture<Void> createNotification(String userId, String title, String message) {
+        notificationBatchWriter.enqueue(userId, title, message);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> createFailedTransaction(RecurringTransfer transfer, String toUserId, String reason) {
+        transferMetrics.recordFailure(reason);
+        // La transaction échouée et la notification sont indépendantes : elles partent en parallèle
+        CompletableFuture<?> transactionWrite = toCompletableFuture(firestore.collection("transactions")
+            .document(transfer.occurrenceId())
+            .set(FirebaseTransferMapper.createFailedTransactionMap(transfer, toUserId, reason)));
+        CompletableFuture<Void> notificationWrite = createNotification(
+            transfer.getFromUserId(),
+            "Échec du transfert programmé",
+            String.format(
+                "Le transfert de %.2f FCFA vers %s a échoué : %s",
+                transfer.getAmount(),
+                transfer.getToPhone(),
+                reason
+            )
+        );
+
+        return CompletableFuture.allOf(transactionWrite, notificationWrite)
+            .thenRun(() -> logger.debug("Transaction échouée créée avec succès: {}", transfer.getId()))
+            .exceptionally(e -> {
+                throw new CompletionException(new TransferException("Impossible de créer la transaction échouée", e));
+            });
+    }
+
+    @Override
+    public CompletableFuture<Void> updateTransactionStatus(String transferId, TransactionStatus status) {
+        return toCompletableFuture(firestore.collection("transactions")
+                .document(transferId)
+                .update(FirebaseTransferMapper.createStatusUpdateMap(status)))
+            .<Void>thenApply(result -> null)
+            .exceptionally(e -> {
+                throw new CompletionException(new TransferException("Impossible de mettre à jour le statut", e));
+            });
+    }
+}
@@ -2,118 +2,36 @@ package com.transfer.infrastructure.firebase;
 
 import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.Timestamp;
-import com.transfer.domain.RecurringFrequency;
 import com.transfer.domain.RecurringTransfer;
+import com.transfer.domain.ScheduleAdvance;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.transfer.application.FailureCategory;
 import com.transfer.application.TransferException;
 import java.time.ZonedDateTime;
 import java.util.HashMap;
 import com.google.cloud.firestore.FieldValue;
 import com.transfer.domain.TransactionStatus;
 import com.transfer.domain.TransactionType;
+import com.transfer.ports.TransferRetry;
 
 public class FirebaseTransferMapper {
     private static final Logger logger = LoggerFactory.getLogger(FirebaseTransferMapper.class);
     
     public static RecurringTransfer toRecurringTransfer(DocumentSnapshot document) {
-        try {
-            Map<String, Object> data = document.getData();
-            if (data == null) {
-                throw new IllegalArgumentException("Document data is null for ID: " + document.getId());
-            }
-
-            logger.debug("Converting document {} to RecurringTransfer", document.getId());
-            
-            // Vérification des champs obligatoires
-            validateRequiredFields(document);
-
-            RecurringTransfer transfer = RecurringTransfer.builder()
-                .id(document.getId())
-                .fromUserId(document.getString("fromUserId"))
-                .toPhone(document.getString("toPhone"))
-                .amount(document.getDouble("amount"))
-                .frequency(RecurringFrequency.fromString(document.getString("frequency")))
-                .startDate(timestampToLocalDateTime(document.getTimestamp("startDate")))
-                .executionTime(parseExecutionTime(data.get("executionTime")))
-                .endDate(document.getTimestamp("endDate") != null ? 
-                        timestampToLocalDateTime(document.getTimestamp("endDate")) : null)
-                .description(document.getString("description"))
-                .lastExecuted(document.getTimestamp("lastExecuted") != null ? 
-                        timestampToLocalDateTime(document.getTimestamp("lastExecuted")) : null)
-                .isActive(document.getBoolean("isActive"))
-                .build();
-
-            logger.debug("Successfully converted document {} to RecurringTransfer", document.getId());
-            return transfer;
-        } catch (Exception e) {
-            logger.error("Erreur lors de la conversion du document {} en RecurringTransfer", document.getId(), e);
-            throw new TransferException("Impossible de convertir le document Firebase en RecurringTransfer", e);
-        }
+        return TransferDocumentCodec.decodeRecurringTransfer(document);
     }
 
-    private static void validateRequiredFields(DocumentSnapshot document) {
-        StringBuilder missingFields = new StringBuilder();
-        
-        checkField(document, "fromUserId", missingFields);
-        checkField(document, "toPhone", missingFields);
-        checkField(document, "amount", missingFields);
-        checkField(document, "frequency", missingFields);
-        checkField(document, "startDate", missingFields);
-        checkField(document, "executionTime", missingFields);
-        
-        if (missingFields.length() > 0) {
-            throw new IllegalArgumentException("Champs manquants dans le document: " + missingFields);
-        }
-    }
-
-    private static void checkField(DocumentSnapshot document, String fieldName, StringBuilder missingFields) {
-        if (!document.contains(fieldName) || document.get(fieldName) == null) {
-            if (missingFields.length() > 0) {
-                missingFields.append(", ");
-            }
-            missingFields.append(fieldName);
-        }
-    }
-
-    private static LocalDateTime timestampToLocalDateTime(Timestamp timestamp) {
-        if (timestamp == null) {
-            throw new IllegalArgumentException("Timestamp ne peut pas être null");
-        }
-        return LocalDateTime.ofInstant(
-            timestamp.toDate().toInstant(),
-            ZoneId.systemDefault()
-        );
+    public static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return TransferDocumentCodec.toTimestamp(dateTime);
     }
 
-    private static LocalTime parseExecutionTime(Object executionTime) {
-        if (executionTime == null) {
-            throw new IllegalArgumentException("executionTime ne peut pas être null");
-        }
-        
-        if (executionTime instanceof Map) {
-            try {
-                @SuppressWarnings("unchecked")
-                Map<String, Long> timeMap = (Map<String, Long>) executionTime;
-                
-                Long hour = timeMap.get("hour");
-                Long minute = timeMap.get("minute");
-                
-                if (hour == null || minute == null) {
-                    throw new IllegalArgumentException("Les champs hour et minute sont requis dans executionTime");
-                }
-                
-                return LocalTime.of(hour.intValue(), minute.intValue());
-            } catch (Exception e) {
-                logger.error("Erreur lors du parsing de executionTime: {}", executionTime, e);
-                throw new IllegalArgumentException("Format invalide pour executionTime", e);
-            }
-        }
-        throw new IllegalArgumentException("executionTime doit être une Map");
+    public static Timestamp toTimestamp(Instant instant) {
+        return TransferDocumentCodec.toTimestamp(instant);
     }
 
     public static Map<String, Object> toFirestore(RecurringTransfer transfer) {
@@ -156,22 +74,7 @@ public class FirebaseTransferMapper {
         String toUserId, 
         TransactionStatus status
     ) {
-        Map<String, Object> data = new HashMap<>();
-        data.put("id", transfer.getId());
-        data.put("fromUserId", transfer.getFromUserId());
-        data.put("toUserId", toUserId);
-        data.put("amount", transfer.getAmount());
-        data.put("type", "recurringTransfer");
-        data.put("status", status.name());
-        data.put("createdAt", FieldValue.serverTimestamp());
-        data.put("description", transfer.getDescription());
-        data.put("isCancelable", true);
-        data.put("cancelableUntil", null);
-        data.put("canceledAt", null);
-        data.put("failureReason", null);
-        data.put("retryCount", 0);
-        data.put("lastRetryAt", null);
-        return data;
+        return TransferDocumentCodec.encodeTransaction(transfer, toUserId, status);
     }
 
     public static Map<String, Object> createTransactionMap(
@@ -236,22 +139,62 @@ public class FirebaseTransferMapper {
         String toUserId,
         String reason
     ) {
+        return TransferDocumentCodec.encodeFailedTransaction(transfer, toUserId, reason);
+    }
+
+    // Entrée de la file durable des relances (transfer_retries), même identifiant que la transaction
+    public static Map<String, Object> createRetryMap(TransferRetry retry) {
         Map<String, Object> data = new HashMap<>();
-        data.put("id", transfer.getId());
-        data.put("fromUserId", transfer.getFromUserId());
-        data.put("toUserId", toUserId);
-        data.put("amount", transfer.getAmount());
-        data.put("type", "recurringTransfer");
-        data.put("status", TransactionStatus.failed.name());
-        data.put("createdAt", FieldValue.serverTimestamp());
-        data.put("description", transfer.getDescription());
-        data.put("isCancelable", false);
-        data.put("failureReason", reason);
-        data.put("retryCount", 0);
-        data.put("lastRetryAt", null);
+        data.put("transactionId", retry.transactionId());
+        data.put("transferId", retry.transferId());
+        data.put("fromUserId", retry.fromUserId());
+        data.put("toUserId", retry.toUserId());
+        data.put("toPhone", retry.toPhone());
+        data.put("amount", retry.amount());
+        data.put("scheduledAt", retry.scheduledAt() != null ? toTimestamp(retry.scheduledAt()) : null);
+        data.put("retryCount", retry.retryCount());
+        data.put("nextAttemptAt", toTimestamp(retry.nextAttemptAt()));
+        data.put("lastFailureReason", retry.lastFailureReason());
         return data;
     }
 
+    public static TransferRetry toTransferRetry(DocumentSnapshot document) {
+        Long retryCount = document.getLong("retryCount");
+        Double amount = document.getDouble("amount");
+        Timestamp scheduledAt = document.getTimestamp("scheduledAt");
+        Timestamp nextAttemptAt = document.getTimestamp("nextAttemptAt");
+        if (amount == null || nextAttemptAt == null) {
+            throw new TransferException("Relance invalide: " + document.getId());
+        }
+        return new TransferRetry(
+            document.getId(),
+            document.getString("transferId"),
+            document.getString("fromUserId"),
+            document.getString("toUserId"),
+            document.getString("toPhone"),
+            amount,
+            scheduledAt != null ? scheduledAt.toDate().toInstant() : null,
+            retryCount != null ? retryCount.intValue() : 0,
+            nextAttemptAt.toDate().toInstant(),
+            document.getString("lastFailureReason")
+        );
+    }
+
+    // Entrée du registre d'idempotence, créée dans la même transaction que les mouvements de solde
+    public static Map<String, Object> createExecutionMap(RecurringTransfer transfer, String toUserId) {
+        return TransferDocumentCodec.encodeExecution(transfer, toUserId);
+    }
+
+    // Entrée du registre pour une échéance exécutée par relance
+    public static Map<String, Object> createExecutionMap(TransferRetry retry, String toUserId) {
+        return TransferDocumentCodec.encodeExecution(retry, toUserId);
+    }
+
+    // Avancement de l'échéance, écrit avec le résultat de l'exécution
+    public static Map<String, Object> createScheduleUpdateMap(ScheduleAdvance advance) {
+        return TransferDocumentCodec.encodeScheduleUpdate(advance);
+    }
+
     public static Map<String, Object> createStatusUpdateMap(TransactionStatus status) {
         Map<String, Object> updates = new HashMap<>();
         updates.put("status", status.name());
@@ -1,70 +1,179 @@
 package com.transfer.infrastructure.firebase;
 
+import com.google.api.core.ApiFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.cloud.firestore.Firestore;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.cloud.FirestoreClient;
-import com.google.cloud.Timestamp;
+import com.transfer.domain.ExecutionOutcome;
 import com.transfer.domain.RecurringTransfer;
+import com.transfer.domain.ScheduleAdvance;
 import com.transfer.ports.TransferRepository;
+import com.transfer.ports.TransferRetry;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import com.transfer.application.FirestoreCallGuard;
+import com.transfer.application.FirestoreUnavailableException;
+import com.transfer.application.RetryPolicy;
 import com.transfer.application.TransferException;
+import com.transfer.application.TransferMetrics;
+import com.transfer.infrastructure.cache.PhoneLookupCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.FieldPath;
 import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
 import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import io.micrometer.core.instrument.Timer;
 import com.transfer.domain.TransactionStatus;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Repository
+@Profile("!inmemory")
 public class FirebaseTransferRepository implements TransferRepository {
     private static final Logger logger = LoggerFactory.getLogger(FirebaseTransferRepository.class);
     private final Firestore firestore;
     private static final String COLLECTION_NAME = "recurring_transfers";
+    // Registre d'idempotence : un document par échéance exécutée
+    private static final String EXECUTIONS_COLLECTION = "transfer_executions";
+    // Nombre maximal de valeurs acceptées par un filtre "in" Firestore
+    private static final int IN_QUERY_LIMIT = 30;
+    // Trois écritures par échec (transaction FAILED, relance, échéance), sous la limite de 500 d'un lot
+    private static final int FAILURE_BATCH_SIZE = 160;
+    // Ordre d'exécution des branches d'un lot : les plus petits montants d'abord pour en couvrir
+    // le plus possible, puis l'identifiant pour rester déterministe
+    private static final Comparator<RecurringTransfer> BATCH_LEG_PRIORITY = Comparator
+        .comparingDouble(RecurringTransfer::getAmount)
+        .thenComparing(RecurringTransfer::getId);
+
+    private final PhoneLookupCache phoneLookupCache;
+    private final NotificationBatchWriter notificationBatchWriter;
+    private final ScheduleWriteBuffer scheduleWriteBuffer;
+    private final TransactionRetryMetrics transactionRetryMetrics;
+    private final TransferMetrics transferMetrics;
+    private final TransferDeadLetterQueue deadLetterQueue;
+    private final FirestoreCallGuard callGuard;
+    private final RetryPolicy retryPolicy;
+    private final int pageSize;
 
     @Autowired
-    public FirebaseTransferRepository(FirebaseApp firebaseApp) {
+    public FirebaseTransferRepository(
+        FirebaseApp firebaseApp,
+        PhoneLookupCache phoneLookupCache,
+        NotificationBatchWriter notificationBatchWriter,
+        ScheduleWriteBuffer scheduleWriteBuffer,
+        TransactionRetryMetrics transactionRetryMetrics,
+        TransferMetrics transferMetrics,
+        TransferDeadLetterQueue deadLetterQueue,
+        FirestoreCallGuard callGuard,
+        RetryPolicy retryPolicy,
+        @Value("${transfer.firestore.page-size:500}") int pageSize
+    ) {
         this.firestore = FirestoreClient.getFirestore();
+        this.phoneLookupCache = phoneLookupCache;
+        this.notificationBatchWriter = notificationBatchWriter;
+        this.scheduleWriteBuffer = scheduleWriteBuffer;
+        this.transactionRetryMetrics = transactionRetryMetrics;
+        this.transferMetrics = transferMetrics;
+        this.deadLetterQueue = deadLetterQueue;
+        this.callGuard = callGuard;
+        this.retryPolicy = retryPolicy;
+        this.pageSize = pageSize;
     }
 
     @Override
-    public List<RecurringTransfer> findActiveTransfers() {
+    public void forEachActiveTransfer(Consumer<RecurringTransfer> consumer) {
+        logger.debug("Parcours des transferts actifs dans Firebase");
+        Query query = firestore.collection(COLLECTION_NAME)
+            .whereEqualTo("isActive", true)
+            .orderBy(FieldPath.documentId());
+        int count = forEachPage(query, consumer, "Impossible de récupérer les transferts actifs depuis Firebase");
+        logger.debug("Nombre de transferts actifs parcourus : {}", count);
+    }
+
+    @Override
+    public List<RecurringTransfer> findTransfersDueBetween(Instant from, Instant to) {
+        logger.debug("Recherche des transferts dus entre {} et {}", from, to);
+        Query query = firestore.collection(COLLECTION_NAME)
+            .whereEqualTo("isActive", true)
+            .whereGreaterThanOrEqualTo("nextExecution", FirebaseTransferMapper.toTimestamp(from))
+            .whereLessThan("nextExecution", FirebaseTransferMapper.toTimestamp(to));
+        List<RecurringTransfer> transfers = new ArrayList<>();
+        forEachPage(query, transfers::add, "Impossible de récupérer les transferts dus depuis Firebase");
+        logger.debug("Nombre de transferts dus trouvés : {}", transfers.size());
+        return transfers;
+    }
+
+    // Parcourt la requête par pages (curseur startAfter sur le dernier document) : seule la page
+    // courante est en mémoire. Un document illisible part en quarantaine au lieu d'interrompre le parcours.
+    private int forEachPage(Query query, Consumer<RecurringTransfer> consumer, String errorMessage) {
+        int count = 0;
+        DocumentSnapshot last = null;
         try {
-            logger.debug("Recherche des transferts actifs dans Firebase");
-            List<RecurringTransfer> transfers = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("isActive", true)
-                .get()
-                .get()
-                .getDocuments()
-                .stream()
-                .map(FirebaseTransferMapper::toRecurringTransfer)
-                .collect(Collectors.toList());
-            logger.debug("Nombre de transferts actifs trouvés : {}", transfers.size());
-            return transfers;
-        } catch (InterruptedException | ExecutionException e) {
+            while (true) {
+                Query page = last == null ? query.limit(pageSize) : query.startAfter(last).limit(pageSize);
+                List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+                for (QueryDocumentSnapshot document : documents) {
+                    RecurringTransfer transfer;
+                    try {
+                        transfer = FirebaseTransferMapper.toRecurringTransfer(document);
+                    } catch (TransferException e) {
+                        deadLetterQueue.quarantine(document, e);
+                        continue;
+                    }
+                    consumer.accept(transfer);
+                    count++;
+                }
+                if (documents.size() < pageSize) {
+                    return count;
+                }
+                last = documents.get(documents.size() - 1);
+            }
+        } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            logger.error("Erreur lors de la récupération des transferts actifs", e);
-            throw new TransferException("Impossible de récupérer les transferts actifs depuis Firebase", e);
+            logger.error(errorMessage, e);
+            throw new TransferException(errorMessage, e);
+        } catch (ExecutionException e) {
+            logger.error(errorMessage, e);
+            throw new TransferException(errorMessage, e);
         }
     }
 
     @Override
-    public void updateLastExecuted(String transferId, LocalDateTime executionDate) {
+    public void updateLastExecuted(String transferId, LocalDateTime executionDate, LocalDateTime nextExecution) {
         try {
-            logger.debug("Mise à jour de la date d'exécution pour le transfert {} à {}", transferId, executionDate);
-            firestore.collection(COLLECTION_NAME)
+            logger.debug("Mise à jour de la date d'exécution pour le transfert {} à {} (prochaine : {})",
+                transferId, executionDate, nextExecution);
+            callGuard.call(() -> firestore.collection(COLLECTION_NAME)
                 .document(transferId)
-                .update("lastExecuted", Timestamp.of(java.util.Date.from(
-                    executionDate.atZone(ZoneId.systemDefault()).toInstant()
-                )))
-                .get();
+                .update(
+                    "lastExecuted", FirebaseTransferMapper.toTimestamp(executionDate),
+                    "nextExecution", FirebaseTransferMapper.toTimestamp(nextExecution)
+                )
+                .get());
             logger.debug("Date d'exécution mise à jour avec succès pour le transfert {}", transferId);
         } catch (InterruptedException | ExecutionException e) {
             Thread.currentThread().interrupt();
@@ -74,22 +183,31 @@ public class FirebaseTransferRepository implements TransferRepository {
     }
 
     @Override
-    public void createNotification(String userId, String title, String message) {
+    public void updateNextExecution(String transferId, LocalDateTime nextExecution) {
         try {
-            logger.debug("Création d'une notification pour l'utilisateur {} avec le titre : {}", userId, title);
-            firestore.collection("notifications")
-                .add(FirebaseTransferMapper.toFirestoreNotification(userId, title, message))
-                .get();
-            logger.debug("Notification créée avec succès pour l'utilisateur {}", userId);
-        } catch (InterruptedException | ExecutionException e) {
+            logger.debug("Mise à jour de la prochaine échéance pour le transfert {} à {}", transferId, nextExecution);
+            callGuard.call(() -> firestore.collection(COLLECTION_NAME)
+                .document(transferId)
+                .update("nextExecution", FirebaseTransferMapper.toTimestamp(nextExecution))
+                .get());
+        } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            logger.error("Erreur lors de la création de la notification pour l'utilisateur {}", userId, e);
-            throw new TransferException("Impossible de créer la notification pour l'utilisateur " + userId, e);
+            logger.error("Erreur lors de la mise à jour de la prochaine échéance pour le transfert {}", transferId, e);
+            throw new TransferException("Impossible de mettre à jour la prochaine échéance pour le transfert " + transferId, e);
+        } catch (ExecutionException e) {
+            logger.error("Erreur lors de la mise à jour de la prochaine échéance pour le transfert {}", transferId, e);
+            throw new TransferException("Impossible de mettre à jour la prochaine échéance pour le transfert " + transferId, e);
         }
     }
 
     @Override
-    public void executeTransfer(RecurringTransfer transfer) {
+    public void createNotification(String userId, String title, String message) {
+        logger.debug("Mise en file d'une notification pour l'utilisateur {} avec le titre : {}", userId, title);
+        notificationBatchWriter.enqueue(userId, title, message);
+    }
+
+    @Override
+    public void executeTransfer(RecurringTransfer transfer, ScheduleAdvance advance) {
         try {
             logger.debug("Exécution du transfert {} de {} vers {}", 
                 transfer.getId(), transfer.getFromUserId(), transfer.getToPhone());
@@ -97,52 +215,82 @@ public class FirebaseTransferRepository implements TransferRepository {
             // Vérifier le destinataire
             String toUserId = findUserIdByPhone(transfer.getToPhone());
             if (toUserId == null) {
-                createFailedTransaction(transfer, toUserId, "Destinataire non trouvé");
+                createFailedTransaction(transfer, toUserId, "Destinataire non trouvé", advance);
                 return;
             }
 
-            // Exécuter le transfert de manière atomique
-            firestore.runTransaction(transaction -> {
-                // Vérifier le solde de l'expéditeur
-                DocumentSnapshot senderDoc = transaction.get(
-                    firestore.collection("users").document(transfer.getFromUserId())
-                ).get();
-                
-                double currentBalance = senderDoc.getDouble("balance");
-                if (currentBalance < transfer.getAmount()) {
-                    // Au lieu de lancer une exception, créer une transaction échouée
-                    createFailedTransaction(transfer, toUserId, "Solde insuffisant");
-                    return null;
-                }
+            // Exécuter le transfert de manière atomique, en réclamant l'échéance dans le registre
+            AtomicInteger attempts = new AtomicInteger();
+            Timer.Sample sample = Timer.start();
+            ExecutionOutcome outcome = callGuard.call(() -> {
+                ApiFuture<ExecutionOutcome> result = firestore.runTransaction(transaction -> {
+                    attempts.incrementAndGet();
+                    DocumentReference executionRef = firestore.collection(EXECUTIONS_COLLECTION)
+                        .document(transfer.occurrenceId());
+                    // Firestore impose toutes les lectures avant la première écriture
+                    DocumentSnapshot senderDoc = transaction.get(
+                        firestore.collection("users").document(transfer.getFromUserId())
+                    ).get();
+                    if (transaction.get(executionRef).get().exists()) {
+                        return ExecutionOutcome.alreadyExecuted;
+                    }
 
-                // Créer la transaction avec le statut SUCCESS
-                Map<String, Object> transactionData = FirebaseTransferMapper.createTransactionMap(
-                    transfer, toUserId, TransactionStatus.success
-                );
+                    double currentBalance = senderDoc.getDouble("balance");
+                    if (currentBalance < transfer.getAmount()) {
+                        return ExecutionOutcome.insufficientFunds;
+                    }
+
+                    // Créer la transaction avec le statut SUCCESS
+                    Map<String, Object> transactionData = FirebaseTransferMapper.createTransactionMap(
+                        transfer, toUserId, TransactionStatus.success
+                    );
                 
-                // Mettre à jour les soldes
-                transaction.update(
-                    firestore.collection("users").document(transfer.getFromUserId()),
-                    "balance", FieldValue.increment(-transfer.getAmount())
-                );
+                    // Mettre à jour les soldes
+                    transaction.update(
+                        firestore.collection("users").document(transfer.getFromUserId()),
+                        "balance", FieldValue.increment(-transfer.getAmount())
+                    );
                 
-                transaction.update(
-                    firestore.collection("users").document(toUserId),
-                    "balance", FieldValue.increment(transfer.getAmount())
-                );
+                    transaction.update(
+                        firestore.collection("users").document(toUserId),
+                        "balance", FieldValue.increment(transfer.getAmount())
+                    );
 
-                // Sauvegarder la transaction
-                transaction.set(
-                    firestore.collection("transactions").document(transfer.getId()),
-                    transactionData
-                );
+                    // Sauvegarder la transaction, une par échéance
+                    transaction.set(
+                        firestore.collection("transactions").document(transfer.occurrenceId()),
+                        transactionData
+                    );
+                    transaction.create(executionRef, FirebaseTransferMapper.createExecutionMap(transfer, toUserId));
+                    // L'échéance avance avec le débit : pas d'écriture séparée après la transaction
+                    transaction.update(
+                        firestore.collection(COLLECTION_NAME).document(transfer.getId()),
+                        FirebaseTransferMapper.createScheduleUpdateMap(advance)
+                    );
 
-                return null;
-            }).get();
+                    return ExecutionOutcome.executed;
+                });
+                result.addListener(() -> recordTransaction(sample, attempts.get()), MoreExecutors.directExecutor());
+                return result.get();
+            });
+
+            // L'échec est écrit hors de la transaction pour ne pas être dupliqué en cas de rejeu
+            switch (outcome) {
+                case insufficientFunds -> createFailedTransaction(transfer, toUserId, "Solde insuffisant", advance);
+                case alreadyExecuted -> {
+                    logger.info("Échéance {} déjà exécutée, ignorée", transfer.occurrenceId());
+                    scheduleWriteBuffer.enqueue(advance);
+                }
+                case executed -> { }
+            }
                 
             logger.debug("Transfert {} exécuté avec succès", transfer.getId());
             
         } catch (Exception e) {
+            // Firestore saturé : pas de recherche ni d'écriture d'échec supplémentaires, le transfert est reporté
+            if (FirestoreCallGuard.isOverload(e)) {
+                throw new FirestoreUnavailableException("Firestore indisponible, transfert " + transfer.getId() + " reporté", e);
+            }
             logger.error("Erreur lors de l'exécution du transfert: {}", e.getMessage());
             String toUserId = null;
             try {
@@ -150,17 +298,134 @@ public class FirebaseTransferRepository implements TransferRepository {
             } catch (Exception ex) {
                 logger.error("Impossible de récupérer le toUserId: {}", ex.getMessage());
             }
-            createFailedTransaction(transfer, toUserId, e.getMessage());
+            createFailedTransaction(transfer, toUserId, e.getMessage(), advance);
+        }
+    }
+
+    @Override
+    public void executeTransferBatch(List<RecurringTransfer> transfers, Map<String, ScheduleAdvance> advances) {
+        if (transfers.isEmpty()) {
+            return;
+        }
+        String fromUserId = transfers.get(0).getFromUserId();
+        logger.debug("Exécution groupée de {} transferts de {}", transfers.size(), fromUserId);
+
+        Map<String, String> recipients = findUserIdsByPhones(
+            transfers.stream().map(RecurringTransfer::getToPhone).toList()
+        );
+
+        List<RecurringTransfer> legs = new ArrayList<>();
+        for (RecurringTransfer transfer : transfers) {
+            if (recipients.get(transfer.getToPhone()) == null) {
+                createFailedTransaction(transfer, null, "Destinataire non trouvé", advances.get(transfer.getId()));
+            } else {
+                legs.add(transfer);
+            }
         }
+        if (legs.isEmpty()) {
+            return;
+        }
+        legs.sort(BATCH_LEG_PRIORITY);
+
+        try {
+            // Un seul débit de l'expéditeur pour toutes les branches couvertes par le solde
+            AtomicInteger attempts = new AtomicInteger();
+            Timer.Sample sample = Timer.start();
+            // Rempli à chaque tentative, la transaction pouvant être rejouée
+            List<RecurringTransfer> alreadyExecuted = new ArrayList<>();
+            List<RecurringTransfer> rejectedLegs = callGuard.call(() -> {
+                ApiFuture<List<RecurringTransfer>> result = firestore.runTransaction(transaction -> {
+                    attempts.incrementAndGet();
+                    DocumentSnapshot senderDoc = transaction.get(
+                        firestore.collection("users").document(fromUserId)
+                    ).get();
+                    DocumentReference[] executionRefs = legs.stream()
+                        .map(leg -> firestore.collection(EXECUTIONS_COLLECTION).document(leg.occurrenceId()))
+                        .toArray(DocumentReference[]::new);
+                    Set<String> claimed = transaction.getAll(executionRefs).get().stream()
+                        .filter(DocumentSnapshot::exists)
+                        .map(DocumentSnapshot::getId)
+                        .collect(Collectors.toSet());
+
+                    double remainingBalance = senderDoc.getDouble("balance");
+                    alreadyExecuted.clear();
+                    List<RecurringTransfer> rejected = new ArrayList<>();
+                    Map<String, Double> balanceDeltas = new LinkedHashMap<>();
+                    for (RecurringTransfer leg : legs) {
+                        // Échéance déjà réclamée par un autre tick ou une autre instance
+                        if (claimed.contains(leg.occurrenceId())) {
+                            alreadyExecuted.add(leg);
+                            continue;
+                        }
+                        if (remainingBalance < leg.getAmount()) {
+                            rejected.add(leg);
+                            continue;
+                        }
+                        remainingBalance -= leg.getAmount();
+
+                        String toUserId = recipients.get(leg.getToPhone());
+                        balanceDeltas.merge(fromUserId, -leg.getAmount(), Double::sum);
+                        balanceDeltas.merge(toUserId, leg.getAmount(), Double::sum);
+                        transaction.set(
+                            firestore.collection("transactions").document(leg.occurrenceId()),
+                            FirebaseTransferMapper.createTransactionMap(leg, toUserId, TransactionStatus.success)
+                        );
+                        transaction.create(
+                            firestore.collection(EXECUTIONS_COLLECTION).document(leg.occurrenceId()),
+                            FirebaseTransferMapper.createExecutionMap(leg, toUserId)
+                        );
+                        transaction.update(
+                            firestore.collection(COLLECTION_NAME).document(leg.getId()),
+                            FirebaseTransferMapper.createScheduleUpdateMap(advances.get(leg.getId()))
+                        );
+                    }
+
+                    // Une seule écriture par document utilisateur, même si plusieurs branches le visent
+                    balanceDeltas.forEach((userId, delta) -> transaction.update(
+                        firestore.collection("users").document(userId),
+                        "balance", FieldValue.increment(delta)
+                    ));
+                    return rejected;
+                });
+                result.addListener(() -> recordTransaction(sample, attempts.get()), MoreExecutors.directExecutor());
+                return result.get();
+            });
+
+            // Les échecs sont écrits hors de la transaction pour ne pas être dupliqués en cas de rejeu
+            for (RecurringTransfer rejected : rejectedLegs) {
+                createFailedTransaction(rejected, recipients.get(rejected.getToPhone()), "Solde insuffisant",
+                    advances.get(rejected.getId()));
+            }
+            alreadyExecuted.forEach(leg -> scheduleWriteBuffer.enqueue(advances.get(leg.getId())));
+            logger.debug("Exécution groupée terminée pour {}", fromUserId);
+        } catch (Exception e) {
+            if (FirestoreCallGuard.isOverload(e)) {
+                throw new FirestoreUnavailableException("Firestore indisponible, transferts de " + fromUserId + " reportés", e);
+            }
+            logger.error("Erreur lors de l'exécution groupée des transferts de {}: {}", fromUserId, e.getMessage());
+            for (RecurringTransfer leg : legs) {
+                createFailedTransaction(leg, recipients.get(leg.getToPhone()), e.getMessage(), advances.get(leg.getId()));
+            }
+        }
+    }
+
+    private void recordTransaction(Timer.Sample sample, int attempts) {
+        transactionRetryMetrics.record(attempts);
+        sample.stop(transferMetrics.stageTimer(TransferMetrics.Stage.transaction));
     }
 
     @Override
     public String findUserIdByPhone(String phone) {
+        return phoneLookupCache.resolve(phone, this::queryUserIdByPhone);
+    }
+
+    private String queryUserIdByPhone(String phone) {
+        Timer.Sample sample = Timer.start();
         try {
-            QuerySnapshot query = firestore.collection("users")
+            QuerySnapshot query = callGuard.call(() -> firestore.collection("users")
                 .whereEqualTo("phone", phone)
                 .get()
-                .get();
+                .get());
                 
             if (query.isEmpty()) {
                 return null;
@@ -170,42 +435,175 @@ public class FirebaseTransferRepository implements TransferRepository {
         } catch (InterruptedException | ExecutionException e) {
             Thread.currentThread().interrupt();
             throw new TransferException("Erreur lors de la recherche de l'utilisateur par téléphone", e);
+        } finally {
+            sample.stop(transferMetrics.stageTimer(TransferMetrics.Stage.phoneLookup));
+        }
+    }
+
+    @Override
+    public Map<String, String> findUserIdsByPhones(Collection<String> phones) {
+        Map<String, String> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String phone : new LinkedHashSet<>(phones)) {
+            Optional<String> cached = phoneLookupCache.getIfPresent(phone);
+            if (cached == null) {
+                missing.add(phone);
+            } else {
+                cached.ifPresent(userId -> resolved.put(phone, userId));
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            int queryCount = callGuard.call(() -> {
+                // Tous les paquets "in" sont envoyés avant d'attendre le premier résultat
+                List<ApiFuture<QuerySnapshot>> queries = new ArrayList<>();
+                for (int from = 0; from < missing.size(); from += IN_QUERY_LIMIT) {
+                    queries.add(firestore.collection("users")
+                        .whereIn("phone", new ArrayList<>(missing.subList(from, Math.min(from + IN_QUERY_LIMIT, missing.size()))))
+                        .get());
+                }
+
+                for (ApiFuture<QuerySnapshot> query : queries) {
+                    for (DocumentSnapshot user : query.get().getDocuments()) {
+                        resolved.putIfAbsent(user.getString("phone"), user.getId());
+                    }
+                }
+                return queries.size();
+            });
+            missing.forEach(phone -> phoneLookupCache.put(phone, resolved.get(phone)));
+
+            logger.debug("{} numéros résolus en {} requêtes groupées", missing.size(), queryCount);
+            return resolved;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferException("Erreur lors de la recherche groupée des utilisateurs par téléphone", e);
+        } catch (ExecutionException e) {
+            throw new TransferException("Erreur lors de la recherche groupée des utilisateurs par téléphone", e);
+        } finally {
+            sample.stop(transferMetrics.stageTimer(TransferMetrics.Stage.phoneLookup));
+        }
+    }
+
+    @Override
+    public Map<String, Double> findBalances(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        Timer.Sample sample = Timer.start();
+        try {
+            // Une seule lecture groupée, limitée au champ balance
+            DocumentReference[] users = new LinkedHashSet<>(userIds).stream()
+                .map(userId -> firestore.collection("users").document(userId))
+                .toArray(DocumentReference[]::new);
+            List<DocumentSnapshot> documents = callGuard.call(() -> firestore.getAll(users, FieldMask.of("balance")).get());
+
+            Map<String, Double> balances = new HashMap<>();
+            for (DocumentSnapshot user : documents) {
+                Double balance = user.exists() ? user.getDouble("balance") : null;
+                if (balance != null) {
+                    balances.put(user.getId(), balance);
+                }
+            }
+            return balances;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferException("Erreur lors de la lecture groupée des soldes", e);
+        } catch (ExecutionException e) {
+            throw new TransferException("Erreur lors de la lecture groupée des soldes", e);
+        } finally {
+            sample.stop(transferMetrics.stageTimer(TransferMetrics.Stage.balanceScreening));
         }
     }
 
     @Override
     public void createFailedTransaction(RecurringTransfer transfer, String toUserId, String reason) {
+        createFailedTransaction(transfer, toUserId, reason, null);
+    }
+
+    private void createFailedTransaction(RecurringTransfer transfer, String toUserId, String reason, ScheduleAdvance advance) {
+        transferMetrics.recordFailure(reason);
         try {
-            Map<String, Object> transactionData = FirebaseTransferMapper.createFailedTransactionMap(
-                transfer,
-                toUserId,
-                reason
-            );
-            
-            firestore.collection("transactions")
-                .document(transfer.getId())
-                .set(transactionData)
-                .get();
-                
-            // Créer une notification pour l'utilisateur
-            createNotification(
-                transfer.getFromUserId(),
-                "Échec du transfert programmé",
-                String.format(
-                    "Le transfert de %.2f FCFA vers %s a échoué : %s",
-                    transfer.getAmount(),
-                    transfer.getToPhone(),
-                    reason
-                )
-            );
-                
-            logger.info("Transaction échouée créée avec succès: {}", transfer.getId());
+            // La relance et l'échéance sont écrites avec la transaction FAILED : pas d'échec relançable
+            // sans relance, ni d'échec enregistré sans que l'échéance avance
+            WriteBatch batch = firestore.batch();
+            addFailedTransaction(batch, transfer, toUserId, reason, advance);
+            callGuard.call(() -> batch.commit().get());
+            notifyFailure(transfer, reason);
+            logger.debug("Transaction échouée créée avec succès: {}", transfer.getId());
         } catch (Exception e) {
             logger.error("Erreur lors de la création de la transaction échouée: {}", e.getMessage());
             throw new TransferException("Impossible de créer la transaction échouée", e);
         }
     }
 
+    @Override
+    public void createFailedTransactions(List<RecurringTransfer> transfers, Map<String, String> recipients,
+                                         Map<String, ScheduleAdvance> advances, String reason) {
+        for (int from = 0; from < transfers.size(); from += FAILURE_BATCH_SIZE) {
+            List<RecurringTransfer> chunk = transfers.subList(from, Math.min(from + FAILURE_BATCH_SIZE, transfers.size()));
+            try {
+                WriteBatch batch = firestore.batch();
+                for (RecurringTransfer transfer : chunk) {
+                    addFailedTransaction(batch, transfer, recipients.get(transfer.getToPhone()), reason,
+                        advances.get(transfer.getId()));
+                }
+                callGuard.call(() -> batch.commit().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("Erreur lors de la création groupée des transactions échouées: {}", e.getMessage());
+                throw new TransferException("Impossible de créer les transactions échouées", e);
+            } catch (ExecutionException e) {
+                logger.error("Erreur lors de la création groupée des transactions échouées: {}", e.getMessage());
+                throw new TransferException("Impossible de créer les transactions échouées", e);
+            }
+            for (RecurringTransfer transfer : chunk) {
+                transferMetrics.recordFailure(reason);
+                notifyFailure(transfer, reason);
+            }
+        }
+        logger.debug("{} transactions échouées créées en lot", transfers.size());
+    }
+
+    private void addFailedTransaction(WriteBatch batch, RecurringTransfer transfer, String toUserId, String reason,
+                                      ScheduleAdvance advance) {
+        batch.set(
+            firestore.collection("transactions").document(transfer.occurrenceId()),
+            FirebaseTransferMapper.createFailedTransactionMap(transfer, toUserId, reason)
+        );
+        retryPolicy.nextAttempt(reason, 0).ifPresent(attemptAt -> batch.set(
+            firestore.collection(FirestoreTransferRetryQueue.COLLECTION_NAME).document(transfer.occurrenceId()),
+            FirebaseTransferMapper.createRetryMap(TransferRetry.firstAttempt(transfer, toUserId, reason, attemptAt))
+        ));
+        if (advance != null) {
+            batch.update(
+                firestore.collection(COLLECTION_NAME).document(transfer.getId()),
+                FirebaseTransferMapper.createScheduleUpdateMap(advance)
+            );
+        }
+    }
+
+    @Override
+    public boolean flushScheduleUpdates() {
+        return scheduleWriteBuffer.flush();
+    }
+
+    private void notifyFailure(RecurringTransfer transfer, String reason) {
+        createNotification(
+            transfer.getFromUserId(),
+            "Échec du transfert programmé",
+            String.format(
+                "Le transfert de %.2f FCFA vers %s a échoué : %s",
+                transfer.getAmount(),
+                transfer.getToPhone(),
+                reason
+            )
+        );
+    }
+
     @Override
     public void updateTransactionStatus(String transferId, TransactionStatus status) {
         try {
@@ -224,93 +622,73 @@ public class FirebaseTransferRepository implements TransferRepository {
     }
 
     @Override
-    public void retryFailedTransfer(String transferId) {
+    public ExecutionOutcome retryFailedTransfer(TransferRetry retry) {
         try {
-            // Récupérer la transaction échouée
-            DocumentSnapshot doc = firestore.collection("transactions")
-                .document(transferId)
-                .get()
-                .get();
-
-            if (!doc.exists()) {
-                throw new TransferException("Transaction non trouvée: " + transferId);
-            }
-
-            // Vérifier si la transaction peut être relancée
-            Boolean isRetryable = doc.getBoolean("isRetryable");
-            Integer retryCount = doc.getLong("retryCount") != null ? 
-                doc.getLong("retryCount").intValue() : 0;
-
-            if (isRetryable == null || !isRetryable || retryCount >= 3) {
-                throw new TransferException("Cette transaction ne peut plus être relancée");
-            }
-
-            // Récupérer les informations de la transaction originale
-            String fromUserId = doc.getString("fromUserId");
-            String toPhone = doc.getString("toPhone");
-            Double amount = doc.getDouble("amount");
-            String description = doc.getString("description");
-
-            // Vérifier le destinataire
-            String toUserId = findUserIdByPhone(toPhone);
+            // Destinataire inconnu au premier essai : il a pu créer son compte depuis
+            String toUserId = retry.toUserId() != null ? retry.toUserId() : findUserIdByPhone(retry.toPhone());
             if (toUserId == null) {
-                updateTransactionStatus(transferId, TransactionStatus.failed);
-                createNotification(fromUserId, "Échec de la relance", 
-                    "Le destinataire n'existe plus");
-                return;
+                throw new TransferException("Destinataire non trouvé");
             }
 
-            // Exécuter le transfert de manière atomique
-            firestore.runTransaction(transaction -> {
-                // Vérifier le solde de l'expéditeur
-                DocumentSnapshot senderDoc = transaction.get(
-                    firestore.collection("users").document(fromUserId)
-                ).get();
-                
-                double currentBalance = senderDoc.getDouble("balance");
-                if (currentBalance < amount) {
-                    updateTransactionStatus(transferId, TransactionStatus.failed);
-                    createNotification(fromUserId, "Échec de la relance", 
-                        "Solde insuffisant");
-                    return null;
-                }
+            DocumentReference senderRef = firestore.collection("users").document(retry.fromUserId());
+            DocumentReference transactionRef = firestore.collection("transactions").document(retry.transactionId());
+            DocumentReference executionRef = firestore.collection(EXECUTIONS_COLLECTION).document(retry.transactionId());
+            AtomicInteger attempts = new AtomicInteger();
+            Timer.Sample sample = Timer.start();
+            ExecutionOutcome outcome = callGuard.call(() -> {
+                ApiFuture<ExecutionOutcome> result = firestore.runTransaction(transaction -> {
+                    attempts.incrementAndGet();
+                    DocumentSnapshot senderDoc = transaction.get(senderRef).get();
+                    if (transaction.get(executionRef).get().exists()) {
+                        return ExecutionOutcome.alreadyExecuted;
+                    }
 
-                // Mettre à jour les soldes
-                transaction.update(
-                    firestore.collection("users").document(fromUserId),
-                    "balance", FieldValue.increment(-amount)
-                );
-                
-                transaction.update(
-                    firestore.collection("users").document(toUserId),
-                    "balance", FieldValue.increment(amount)
-                );
+                    if (senderDoc.getDouble("balance") < retry.amount()) {
+                        transaction.update(transactionRef,
+                            "retryCount", retry.retryCount() + 1,
+                            "lastRetryAt", FieldValue.serverTimestamp(),
+                            "failureReason", "Solde insuffisant"
+                        );
+                        return ExecutionOutcome.insufficientFunds;
+                    }
 
-                // Mettre à jour le statut de la transaction
-                transaction.update(
-                    firestore.collection("transactions").document(transferId),
-                    Map.of(
+                    transaction.update(senderRef, "balance", FieldValue.increment(-retry.amount()));
+                    transaction.update(
+                        firestore.collection("users").document(toUserId),
+                        "balance", FieldValue.increment(retry.amount())
+                    );
+                    transaction.update(transactionRef,
                         "status", TransactionStatus.success.name(),
-                        "lastRetryAt", FieldValue.serverTimestamp(),
-                        "retryCount", FieldValue.increment(1)
-                    )
-                );
-
-                return null;
-            }).get();
+                        "toUserId", toUserId,
+                        "retryCount", retry.retryCount() + 1,
+                        "lastRetryAt", FieldValue.serverTimestamp()
+                    );
+                    transaction.create(executionRef, FirebaseTransferMapper.createExecutionMap(retry, toUserId));
+                    return ExecutionOutcome.executed;
+                });
+                result.addListener(() -> recordTransaction(sample, attempts.get()), MoreExecutors.directExecutor());
+                return result.get();
+            });
 
-            // Notifier l'utilisateur du succès
-            createNotification(
-                fromUserId,
-                "Transfert relancé avec succès",
-                String.format("Le transfert de %.2f FCFA vers %s a été effectué", amount, toPhone)
-            );
-                
-            logger.info("Transfert {} relancé avec succès", transferId);
-            
-        } catch (Exception e) {
+            if (outcome == ExecutionOutcome.executed) {
+                createNotification(
+                    retry.fromUserId(),
+                    "Transfert relancé avec succès",
+                    String.format("Le transfert de %.2f FCFA vers %s a été effectué", retry.amount(), retry.toPhone())
+                );
+                logger.info("Transaction {} relancée avec succès", retry.transactionId());
+            }
+            return outcome;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferException("Relance interrompue: " + retry.transactionId(), e);
+        } catch (ExecutionException e) {
+            // Sans rétablir le drapeau d'interruption : le thread du pool de relances continue de servir
+            if (FirestoreCallGuard.isOverload(e)) {
+                throw new FirestoreUnavailableException("Firestore indisponible, relance " + retry.transactionId() + " reportée", e);
+            }
             logger.error("Erreur lors de la relance du transfert: {}", e.getMessage());
-            throw new TransferException("Impossible de relancer le transfert", e);
+            throw new TransferException("Impossible de relancer le transfert: " + e.getMessage(), e);
         }
     }
-} 
\ No newline at end of file
+}
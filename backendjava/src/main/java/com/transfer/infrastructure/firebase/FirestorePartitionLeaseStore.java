@@ -0,0 +1,155 @@
+package com.transfer.infrastructure.firebase;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.cloud.FirestoreClient;
+import com.transfer.application.TransferException;
+import com.transfer.ports.PartitionLease;
+import com.transfer.ports.PartitionLeaseStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+// Baux des partitions dans la collection scheduler_leases, un document par partition, et
+// présence des instances dans scheduler_instances. Prise et libération d'un bail passent par
+// une transaction pour qu'une seule instance gagne.
+@Component
+@Profile("!inmemory")
+public class FirestorePartitionLeaseStore implements PartitionLeaseStore {
+    private static final Logger logger = LoggerFactory.getLogger(FirestorePartitionLeaseStore.class);
+    private static final String COLLECTION_NAME = "scheduler_leases";
+    private static final String INSTANCES_COLLECTION = "scheduler_instances";
+    private final Firestore firestore;
+
+    public FirestorePartitionLeaseStore(FirebaseApp firebaseApp) {
+        this.firestore = FirestoreClient.getFirestore();
+    }
+
+    @Override
+    public List<PartitionLease> findAll() {
+        try {
+            return firestore.collection(COLLECTION_NAME).get().get().getDocuments().stream()
+                .map(FirestorePartitionLeaseStore::toLease)
+                .toList();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferException("Impossible de lire les baux des partitions", e);
+        } catch (ExecutionException e) {
+            throw new TransferException("Impossible de lire les baux des partitions", e);
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(int partition, String ownerId, Instant now, Instant expiresAt) {
+        DocumentReference leaseRef = firestore.collection(COLLECTION_NAME).document(String.valueOf(partition));
+        try {
+            return firestore.runTransaction(transaction -> {
+                DocumentSnapshot current = transaction.get(leaseRef).get();
+                if (current.exists()) {
+                    PartitionLease lease = toLease(current);
+                    if (!ownerId.equals(lease.ownerId()) && lease.isLiveAt(now)) {
+                        return false;
+                    }
+                }
+                transaction.set(leaseRef, Map.of(
+                    "partition", partition,
+                    "ownerId", ownerId,
+                    "expiresAt", FirebaseTransferMapper.toTimestamp(expiresAt),
+                    "renewedAt", FirebaseTransferMapper.toTimestamp(now)
+                ));
+                return true;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Impossible de prendre le bail de la partition {}: {}", partition, e.getMessage());
+            return false;
+        } catch (ExecutionException e) {
+            logger.error("Impossible de prendre le bail de la partition {}: {}", partition, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void release(int partition, String ownerId) {
+        DocumentReference leaseRef = firestore.collection(COLLECTION_NAME).document(String.valueOf(partition));
+        try {
+            firestore.runTransaction(transaction -> {
+                DocumentSnapshot current = transaction.get(leaseRef).get();
+                if (current.exists() && ownerId.equals(current.getString("ownerId"))) {
+                    transaction.delete(leaseRef);
+                }
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Impossible de libérer le bail de la partition {}: {}", partition, e.getMessage());
+        } catch (ExecutionException e) {
+            logger.error("Impossible de libérer le bail de la partition {}: {}", partition, e.getMessage());
+        }
+    }
+
+    @Override
+    public void registerInstance(String instanceId, Instant expiresAt) {
+        try {
+            firestore.collection(INSTANCES_COLLECTION).document(instanceId)
+                .set(Map.of("expiresAt", FirebaseTransferMapper.toTimestamp(expiresAt)))
+                .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferException("Impossible d'enregistrer l'instance " + instanceId, e);
+        } catch (ExecutionException e) {
+            throw new TransferException("Impossible d'enregistrer l'instance " + instanceId, e);
+        }
+    }
+
+    @Override
+    public Set<String> findLiveInstances(Instant now) {
+        try {
+            return firestore.collection(INSTANCES_COLLECTION)
+                .whereGreaterThan("expiresAt", FirebaseTransferMapper.toTimestamp(now))
+                .get()
+                .get()
+                .getDocuments()
+                .stream()
+                .map(DocumentSnapshot::getId)
+                .collect(Collectors.toSet());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferException("Impossible de lire les instances actives", e);
+        } catch (ExecutionException e) {
+            throw new TransferException("Impossible de lire les instances actives", e);
+        }
+    }
+
+    @Override
+    public void unregisterInstance(String instanceId) {
+        try {
+            firestore.collection(INSTANCES_COLLECTION).document(instanceId).delete().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Impossible de désinscrire l'instance {}: {}", instanceId, e.getMessage());
+        } catch (ExecutionException e) {
+            logger.error("Impossible de désinscrire l'instance {}: {}", instanceId, e.getMessage());
+        }
+    }
+
+    private static PartitionLease toLease(DocumentSnapshot document) {
+        Timestamp expiresAt = document.getTimestamp("expiresAt");
+        return new PartitionLease(
+            Integer.parseInt(document.getId()),
+            document.getString("ownerId"),
+            expiresAt == null ? Instant.EPOCH : Instant.ofEpochSecond(expiresAt.getSeconds(), expiresAt.getNanos())
+        );
+    }
+}
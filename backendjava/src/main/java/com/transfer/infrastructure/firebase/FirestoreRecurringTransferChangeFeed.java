@@ -0,0 +1,74 @@
+package com.transfer.infrastructure.firebase;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.cloud.FirestoreClient;
+import com.transfer.ports.RecurringTransferChange;
+import com.transfer.ports.RecurringTransferChangeFeed;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Écoute des transferts actifs : Firestore envoie d'abord tous les documents, puis seulement
+// ceux qui changent. Un transfert désactivé sort de la requête et arrive comme REMOVED.
+@Component
+@Profile("!inmemory")
+public class FirestoreRecurringTransferChangeFeed implements RecurringTransferChangeFeed {
+    private static final String COLLECTION_NAME = "recurring_transfers";
+    private final Firestore firestore;
+    private final TransferDeadLetterQueue deadLetterQueue;
+
+    public FirestoreRecurringTransferChangeFeed(FirebaseApp firebaseApp, TransferDeadLetterQueue deadLetterQueue) {
+        this.firestore = FirestoreClient.getFirestore();
+        this.deadLetterQueue = deadLetterQueue;
+    }
+
+    @Override
+    public Subscription subscribe(Listener listener) {
+        AtomicBoolean initialSnapshotReceived = new AtomicBoolean();
+        ListenerRegistration registration = firestore.collection(COLLECTION_NAME)
+            .whereEqualTo("isActive", true)
+            .addSnapshotListener((snapshot, error) -> {
+                if (error != null) {
+                    listener.onError(error);
+                    return;
+                }
+                if (snapshot == null) {
+                    return;
+                }
+
+                Instant readTime = toInstant(snapshot.getReadTime());
+                List<RecurringTransferChange> changes = new ArrayList<>(snapshot.getDocumentChanges().size());
+                for (DocumentChange change : snapshot.getDocumentChanges()) {
+                    QueryDocumentSnapshot document = change.getDocument();
+                    if (change.getType() == DocumentChange.Type.REMOVED) {
+                        changes.add(RecurringTransferChange.removal(document.getId(), readTime));
+                        continue;
+                    }
+                    try {
+                        changes.add(RecurringTransferChange.upsert(
+                            FirebaseTransferMapper.toRecurringTransfer(document),
+                            toInstant(document.getUpdateTime())
+                        ));
+                    } catch (Exception e) {
+                        // Document invalide : mis en quarantaine, comme lors d'un chargement paginé
+                        deadLetterQueue.quarantine(document, e);
+                    }
+                }
+                listener.onChanges(changes, initialSnapshotReceived.compareAndSet(false, true));
+            });
+        return registration::remove;
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
+    }
+}
@@ -0,0 +1,125 @@
+package com.transfer.infrastructure.firebase;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.cloud.FirestoreClient;
+import com.transfer.application.TransferException;
+import com.transfer.ports.SchedulerWatermarkStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+// Filigrane commun dans scheduler_state/watermark, filigranes par partition dans
+// scheduler_watermarks/{partition}
+@Component
+@Profile("!inmemory")
+public class FirestoreSchedulerWatermarkStore implements SchedulerWatermarkStore {
+    private static final String COLLECTION_NAME = "scheduler_state";
+    private static final String DOCUMENT_ID = "watermark";
+    private static final String PARTITIONS_COLLECTION_NAME = "scheduler_watermarks";
+    private static final int MAX_BATCH_WRITES = 500;
+    private final Firestore firestore;
+    private final DocumentReference watermarkRef;
+    private final CollectionReference partitionsRef;
+
+    public FirestoreSchedulerWatermarkStore(FirebaseApp firebaseApp) {
+        this.firestore = FirestoreClient.getFirestore();
+        this.watermarkRef = firestore.collection(COLLECTION_NAME).document(DOCUMENT_ID);
+        this.partitionsRef = firestore.collection(PARTITIONS_COLLECTION_NAME);
+    }
+
+    @Override
+    public Optional<Instant> load() {
+        try {
+            return Optional.ofNullable(completedUntil(watermarkRef.get().get()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferException("Impossible de lire le filigrane du scheduler", e);
+        } catch (ExecutionException e) {
+            throw new TransferException("Impossible de lire le filigrane du scheduler", e);
+        }
+    }
+
+    @Override
+    public void save(Instant watermark) {
+        try {
+            watermarkRef.set(toDocument(watermark)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferException("Impossible d'enregistrer le filigrane du scheduler", e);
+        } catch (ExecutionException e) {
+            throw new TransferException("Impossible d'enregistrer le filigrane du scheduler", e);
+        }
+    }
+
+    // Une seule lecture groupée
+    @Override
+    public Map<Integer, Instant> loadPartitions(Collection<Integer> partitions) {
+        if (partitions.isEmpty()) {
+            return Map.of();
+        }
+        List<DocumentReference> refs = new ArrayList<>(partitions.size());
+        partitions.forEach(partition -> refs.add(partitionsRef.document(String.valueOf(partition))));
+        try {
+            Map<Integer, Instant> watermarks = new HashMap<>();
+            for (DocumentSnapshot document : firestore.getAll(refs.toArray(new DocumentReference[0])).get()) {
+                Instant watermark = completedUntil(document);
+                if (watermark != null) {
+                    watermarks.put(Integer.parseInt(document.getId()), watermark);
+                }
+            }
+            return watermarks;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferException("Impossible de lire les filigranes des partitions", e);
+        } catch (ExecutionException e) {
+            throw new TransferException("Impossible de lire les filigranes des partitions", e);
+        }
+    }
+
+    @Override
+    public void savePartitions(Collection<Integer> partitions, Instant watermark) {
+        List<Integer> remaining = new ArrayList<>(partitions);
+        Map<String, Object> document = toDocument(watermark);
+        try {
+            for (int from = 0; from < remaining.size(); from += MAX_BATCH_WRITES) {
+                WriteBatch batch = firestore.batch();
+                for (Integer partition : remaining.subList(from, Math.min(from + MAX_BATCH_WRITES, remaining.size()))) {
+                    batch.set(partitionsRef.document(String.valueOf(partition)), document);
+                }
+                batch.commit().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferException("Impossible d'enregistrer les filigranes des partitions", e);
+        } catch (ExecutionException e) {
+            throw new TransferException("Impossible d'enregistrer les filigranes des partitions", e);
+        }
+    }
+
+    private static Instant completedUntil(DocumentSnapshot document) {
+        Timestamp completedUntil = document.exists() ? document.getTimestamp("completedUntil") : null;
+        return completedUntil == null ? null : Instant.ofEpochSecond(completedUntil.getSeconds(), completedUntil.getNanos());
+    }
+
+    private static Map<String, Object> toDocument(Instant watermark) {
+        return Map.of(
+            "completedUntil", FirebaseTransferMapper.toTimestamp(watermark),
+            "updatedAt", FieldValue.serverTimestamp()
+        );
+    }
+}
@@ -0,0 +1,121 @@
+package com.transfer.infrastructure.firebase;
+
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.cloud.FirestoreClient;
+import com.transfer.application.TransferException;
+import com.transfer.ports.TransferRetry;
+import com.transfer.ports.TransferRetryQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+// Relances dans la collection transfer_retries, une par transaction échouée (même identifiant).
+// Les relances dues se lisent par une requête sur nextAttemptAt, triée par date de tentative.
+@Component
+@Profile("!inmemory")
+public class FirestoreTransferRetryQueue implements TransferRetryQueue {
+    private static final Logger logger = LoggerFactory.getLogger(FirestoreTransferRetryQueue.class);
+    static final String COLLECTION_NAME = "transfer_retries";
+    private final Firestore firestore;
+
+    public FirestoreTransferRetryQueue(FirebaseApp firebaseApp) {
+        this.firestore = FirestoreClient.getFirestore();
+    }
+
+    @Override
+    public void enqueue(TransferRetry retry) {
+        try {
+            retries().document(retry.transactionId()).set(FirebaseTransferMapper.createRetryMap(retry)).get();
+        } catch (InterruptedException | ExecutionException e) {
+            restoreInterrupt(e);
+            throw new TransferException("Impossible d'enregistrer la relance " + retry.transactionId(), e);
+        }
+    }
+
+    @Override
+    public List<TransferRetry> findDue(Instant now, int limit) {
+        try {
+            List<QueryDocumentSnapshot> documents = retries()
+                .whereLessThanOrEqualTo("nextAttemptAt", FirebaseTransferMapper.toTimestamp(now))
+                .orderBy("nextAttemptAt")
+                .limit(limit)
+                .get()
+                .get()
+                .getDocuments();
+            List<TransferRetry> due = new ArrayList<>(documents.size());
+            for (QueryDocumentSnapshot document : documents) {
+                try {
+                    due.add(FirebaseTransferMapper.toTransferRetry(document));
+                } catch (TransferException e) {
+                    logger.error("Relance {} illisible, ignorée: {}", document.getId(), e.getMessage());
+                }
+            }
+            return due;
+        } catch (InterruptedException | ExecutionException e) {
+            restoreInterrupt(e);
+            throw new TransferException("Impossible de lire les relances dues", e);
+        }
+    }
+
+    @Override
+    public void reschedule(String transactionId, int retryCount, Instant nextAttemptAt, String reason) {
+        try {
+            retries().document(transactionId).update(
+                "retryCount", retryCount,
+                "nextAttemptAt", FirebaseTransferMapper.toTimestamp(nextAttemptAt),
+                "lastFailureReason", reason
+            ).get();
+        } catch (InterruptedException | ExecutionException e) {
+            restoreInterrupt(e);
+            throw new TransferException("Impossible de reprogrammer la relance " + transactionId, e);
+        }
+    }
+
+    @Override
+    public boolean expedite(String transactionId, Instant now) {
+        DocumentReference retryRef = retries().document(transactionId);
+        try {
+            return firestore.runTransaction(transaction -> {
+                if (!transaction.get(retryRef).get().exists()) {
+                    return false;
+                }
+                transaction.update(retryRef, "nextAttemptAt", FirebaseTransferMapper.toTimestamp(now));
+                return true;
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            restoreInterrupt(e);
+            throw new TransferException("Impossible d'avancer la relance " + transactionId, e);
+        }
+    }
+
+    @Override
+    public void remove(String transactionId) {
+        try {
+            retries().document(transactionId).delete().get();
+        } catch (InterruptedException | ExecutionException e) {
+            restoreInterrupt(e);
+            throw new TransferException("Impossible de supprimer la relance " + transactionId, e);
+        }
+    }
+
+    // Appelée depuis le pool de relances : seule une vraie interruption y laisse le drapeau levé
+    private static void restoreInterrupt(Exception e) {
+        if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CollectionReference retries() {
+        return firestore.collection(COLLECTION_NAME);
+    }
+}
@@ -0,0 +1,188 @@
+package com.transfer.infrastructure.firebase;
+
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.cloud.FirestoreClient;
+import com.transfer.application.TransferMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Regroupe les notifications dans une file bornée et les écrit par WriteBatch, dès que le lot
+// est plein ou que le délai d'attente est écoulé : l'exécution des transferts n'attend plus Firestore
+@Component
+@Profile("!inmemory")
+public class NotificationBatchWriter {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationBatchWriter.class);
+    // Limite Firestore du nombre d'écritures par WriteBatch
+    private static final int MAX_BATCH_WRITES = 500;
+    private static final String COLLECTION_NAME = "notifications";
+
+    private final Firestore firestore;
+    private final BlockingQueue<Map<String, Object>> queue;
+    private final int batchSize;
+    private final Duration linger;
+    private final Duration offerTimeout;
+    private final Counter written;
+    private final Counter failed;
+    private final Counter directWrites;
+    private final TransferMetrics transferMetrics;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public NotificationBatchWriter(
+        FirebaseApp firebaseApp,
+        MeterRegistry meterRegistry,
+        TransferMetrics transferMetrics,
+        @Value("${transfer.notifications.queue-capacity:10000}") int queueCapacity,
+        @Value("${transfer.notifications.batch-size:200}") int batchSize,
+        @Value("${transfer.notifications.linger:250ms}") Duration linger,
+        @Value("${transfer.notifications.offer-timeout:2s}") Duration offerTimeout
+    ) {
+        this.firestore = FirestoreClient.getFirestore();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = Math.min(batchSize, MAX_BATCH_WRITES);
+        this.linger = linger;
+        this.offerTimeout = offerTimeout;
+        this.written = meterRegistry.counter("transfer.notifications.written");
+        this.failed = meterRegistry.counter("transfer.notifications.failed");
+        this.directWrites = meterRegistry.counter("transfer.notifications.direct.writes");
+        this.transferMetrics = transferMetrics;
+        Gauge.builder("transfer.notifications.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = Thread.ofPlatform().name("notification-writer").start(this::flushLoop);
+    }
+
+    public void enqueue(String userId, String title, String message) {
+        Map<String, Object> notification = FirebaseTransferMapper.toFirestoreNotification(userId, title, message);
+        if (!running) {
+            writeDirectly(notification);
+            return;
+        }
+
+        try {
+            // File pleine : l'appelant attend, puis écrit lui-même, ce qui ralentit les producteurs
+            if (!queue.offer(notification, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                logger.warn("File des notifications pleine, écriture directe pour l'utilisateur {}", userId);
+                writeDirectly(notification);
+            } else if (!running && queue.remove(notification)) {
+                // Arrêt commencé pendant la mise en file : le dernier vidage a pu passer avant.
+                // Si la notification n'est plus en file, un vidage l'a déjà prise en charge.
+                writeDirectly(notification);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeDirectly(notification);
+        }
+    }
+
+    private void flushLoop() {
+        List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Map<String, Object> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + linger.toNanos();
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Map<String, Object> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Arrêt forcé : on vide ce qui reste sans attendre
+                queue.drainTo(batch);
+                flush(batch);
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Map<String, Object>> notifications) {
+        CollectionReference collection = firestore.collection(COLLECTION_NAME);
+        for (int from = 0; from < notifications.size(); from += MAX_BATCH_WRITES) {
+            List<Map<String, Object>> chunk = notifications.subList(from, Math.min(from + MAX_BATCH_WRITES, notifications.size()));
+            WriteBatch writeBatch = firestore.batch();
+            chunk.forEach(notification -> writeBatch.create(collection.document(), notification));
+            Timer.Sample sample = Timer.start();
+            try {
+                writeBatch.commit().get();
+                written.increment(chunk.size());
+                logger.debug("{} notifications écrites", chunk.size());
+            } catch (InterruptedException | ExecutionException e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                failed.increment(chunk.size());
+                logger.error("Impossible d'écrire un lot de {} notifications", chunk.size(), e);
+            } finally {
+                sample.stop(transferMetrics.stageTimer(TransferMetrics.Stage.notificationWrite));
+            }
+        }
+    }
+
+    private void writeDirectly(Map<String, Object> notification) {
+        Timer.Sample sample = Timer.start();
+        try {
+            firestore.collection(COLLECTION_NAME).add(notification).get();
+            directWrites.increment();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            failed.increment();
+            logger.error("Impossible d'écrire la notification pour l'utilisateur {}", notification.get("userId"), e);
+        } finally {
+            sample.stop(transferMetrics.stageTimer(TransferMetrics.Stage.notificationWrite));
+        }
+    }
+
+    // Arrêt propre : plus aucune mise en file, puis vidage complet avant de rendre la main. Ce qui a
+    // été mis en file après la sortie de la boucle d'écriture est écrit ici.
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        List<Map<String, Object>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        flush(remaining);
+        logger.info("Écrivain de notifications arrêté, {} notifications écrites après la boucle d'écriture",
+            remaining.size());
+    }
+}
@@ -0,0 +1,112 @@
+package com.transfer.infrastructure.firebase;
+
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.cloud.FirestoreClient;
+import com.transfer.infrastructure.cache.PhoneLookupCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Invalide le cache des numéros quand un document users change (numéro modifié, compte supprimé...).
+// L'écoute lit toute la collection users une fois au démarrage, d'où l'activation optionnelle.
+// Une écoute interrompue est reprise avec un délai qui double à chaque échec consécutif.
+@Component
+@Profile("!inmemory")
+@ConditionalOnProperty(name = "transfer.phone-cache.listen-for-changes", havingValue = "true")
+public class PhoneLookupCacheInvalidator {
+    private static final Logger logger = LoggerFactory.getLogger(PhoneLookupCacheInvalidator.class);
+    private static final long INITIAL_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private final Firestore firestore;
+    private final PhoneLookupCache phoneLookupCache;
+    private final ScheduledExecutorService resubscriber = Executors.newSingleThreadScheduledExecutor(
+        runnable -> Thread.ofPlatform().name("phone-cache-resubscriber").daemon().unstarted(runnable));
+    // Accès sous le verrou de l'instance
+    private ListenerRegistration registration;
+    private boolean initialSnapshotReceived;
+    private int consecutiveFailures;
+    private boolean stopped;
+
+    public PhoneLookupCacheInvalidator(FirebaseApp firebaseApp, PhoneLookupCache phoneLookupCache) {
+        this.firestore = FirestoreClient.getFirestore();
+        this.phoneLookupCache = phoneLookupCache;
+    }
+
+    @PostConstruct
+    public synchronized void listen() {
+        if (stopped) {
+            return;
+        }
+        if (registration != null) {
+            registration.remove();
+        }
+        initialSnapshotReceived = false;
+        registration = firestore.collection("users").addSnapshotListener((snapshot, error) -> {
+            if (error != null) {
+                onListenError(error);
+                return;
+            }
+            // Le premier instantané contient toute la collection : rien à invalider, sauf après une
+            // interruption, les changements survenus entre-temps n'ayant pas été reçus
+            if (snapshot == null || firstSnapshot()) {
+                return;
+            }
+
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                String phone = change.getDocument().getString("phone");
+                if (phone != null) {
+                    phoneLookupCache.invalidate(phone);
+                }
+                if (change.getType() != DocumentChange.Type.ADDED) {
+                    phoneLookupCache.invalidateUser(change.getDocument().getId());
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        stopped = true;
+        resubscriber.shutdownNow();
+        if (registration != null) {
+            registration.remove();
+        }
+    }
+
+    private synchronized boolean firstSnapshot() {
+        if (initialSnapshotReceived) {
+            return false;
+        }
+        initialSnapshotReceived = true;
+        if (consecutiveFailures > 0) {
+            phoneLookupCache.invalidateAll();
+            consecutiveFailures = 0;
+        }
+        return true;
+    }
+
+    // L'écoute est terminée par Firestore : cache vidé, réabonnement différé pour ne pas boucler
+    // sur une erreur persistante (quota, permissions)
+    private synchronized void onListenError(Exception error) {
+        if (stopped) {
+            return;
+        }
+        long delay = Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << Math.min(consecutiveFailures, 20));
+        consecutiveFailures++;
+        logger.error("Erreur de l'écoute des utilisateurs, invalidation complète du cache, réabonnement dans {} ms",
+            delay, error);
+        phoneLookupCache.invalidateAll();
+        resubscriber.schedule(this::listen, delay, TimeUnit.MILLISECONDS);
+    }
+}
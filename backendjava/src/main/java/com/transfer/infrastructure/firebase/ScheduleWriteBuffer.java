@@ -0,0 +1,100 @@
+package com.transfer.infrastructure.firebase;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteResult;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.cloud.FirestoreClient;
+import com.transfer.domain.ScheduleAdvance;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Mises à jour d'échéance qui ne peuvent pas accompagner une autre écriture (échéance déjà
+// exécutée ailleurs) : confiées à un BulkWriter qui les regroupe, vidé à la fin de chaque tick
+// et à l'arrêt. Une écriture perdue ou non confirmée laisse l'échéance dans le passé : le tick
+// ne fait alors pas avancer le filigrane et le rattrapage la reprend, le registre des échéances
+// écartant la réexécution.
+@Component
+@Profile("!inmemory")
+public class ScheduleWriteBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleWriteBuffer.class);
+    private static final String COLLECTION_NAME = "recurring_transfers";
+    private static final long FLUSH_TIMEOUT_SECONDS = 20;
+
+    private final Firestore firestore;
+    private final BulkWriter bulkWriter;
+    private final Counter written;
+    private final Counter failed;
+    // Une écriture a échoué depuis le dernier flush
+    private final AtomicBoolean failedSinceFlush = new AtomicBoolean();
+
+    public ScheduleWriteBuffer(FirebaseApp firebaseApp, MeterRegistry meterRegistry) {
+        this.firestore = FirestoreClient.getFirestore();
+        this.bulkWriter = firestore.bulkWriter();
+        this.written = meterRegistry.counter("transfer.schedule.buffered.written");
+        this.failed = meterRegistry.counter("transfer.schedule.buffered.failed");
+    }
+
+    public void enqueue(ScheduleAdvance advance) {
+        ApiFuture<WriteResult> result = bulkWriter.update(
+            firestore.collection(COLLECTION_NAME).document(advance.transferId()),
+            FirebaseTransferMapper.createScheduleUpdateMap(advance)
+        );
+        ApiFutures.addCallback(result, new ApiFutureCallback<>() {
+            @Override
+            public void onSuccess(WriteResult writeResult) {
+                written.increment();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                failed.increment();
+                failedSinceFlush.set(true);
+                logger.error("Impossible de mettre à jour l'échéance du transfert {}: {}",
+                    advance.transferId(), t.getMessage());
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    // Écrit ce qui reste en attente et attend la confirmation, dans la limite de FLUSH_TIMEOUT_SECONDS :
+    // vrai si toutes les mises à jour depuis le flush précédent ont abouti
+    public boolean flush() {
+        try {
+            bulkWriter.flush().get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Mises à jour d'échéance non confirmées: {}", e.getMessage());
+            return false;
+        }
+        return !failedSinceFlush.getAndSet(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            bulkWriter.close();
+            logger.info("Mises à jour d'échéance en attente écrites");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Arrêt interrompu avant l'écriture des mises à jour d'échéance en attente");
+        } catch (ExecutionException e) {
+            logger.error("Impossible d'écrire les mises à jour d'échéance en attente: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.transfer.infrastructure.firebase;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+// Firestore rejoue la fonction d'une transaction en cas de contention : chaque tentative
+// au-delà de la première est comptée comme un retry
+@Component
+public class TransactionRetryMetrics {
+    private final Counter retries;
+    private final Counter transactions;
+
+    public TransactionRetryMetrics(MeterRegistry meterRegistry) {
+        this.retries = Counter.builder("transfer.firestore.transaction.retries")
+            .description("Tentatives supplémentaires de transactions Firestore")
+            .register(meterRegistry);
+        this.transactions = meterRegistry.counter("transfer.firestore.transactions");
+    }
+
+    public void record(int attempts) {
+        transactions.increment();
+        if (attempts > 1) {
+            retries.increment(attempts - 1);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.transfer.infrastructure.firebase;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.cloud.FirestoreClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.transfer.infrastructure.firebase.FirestoreFutures.toCompletableFuture;
+
+// Quarantaine des transferts illisibles : le document est copié dans recurring_transfers_dead_letter
+// (même identifiant, donc une seule copie par transfert) avec la cause, et le chargement continue.
+// L'écriture part sans être attendue pour ne pas ralentir le parcours.
+@Component
+@Profile("!inmemory")
+public class TransferDeadLetterQueue {
+    private static final Logger logger = LoggerFactory.getLogger(TransferDeadLetterQueue.class);
+    private static final String COLLECTION_NAME = "recurring_transfers_dead_letter";
+    private final Firestore firestore;
+    private final Counter quarantined;
+
+    public TransferDeadLetterQueue(FirebaseApp firebaseApp, MeterRegistry meterRegistry) {
+        this.firestore = FirestoreClient.getFirestore();
+        this.quarantined = Counter.builder("transfer.load.quarantined")
+            .description("Documents de transferts illisibles écartés lors d'un chargement")
+            .register(meterRegistry);
+    }
+
+    public void quarantine(DocumentSnapshot document, Exception error) {
+        quarantined.increment();
+        String reason = error.getCause() != null ? error.getCause().getMessage() : error.getMessage();
+        logger.error("Transfert {} mis en quarantaine: {}", document.getId(), reason);
+
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("transferId", document.getId());
+        entry.put("reason", reason);
+        entry.put("data", document.getData());
+        entry.put("quarantinedAt", FieldValue.serverTimestamp());
+        toCompletableFuture(firestore.collection(COLLECTION_NAME).document(document.getId()).set(entry))
+            .exceptionally(e -> {
+                logger.error("Impossible de mettre en quarantaine le transfert {}: {}", document.getId(), e.getMessage());
+                return null;
+            });
+    }
+}
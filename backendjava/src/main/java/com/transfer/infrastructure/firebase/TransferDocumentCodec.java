@@ -0,0 +1,231 @@
+package com.transfer.infrastructure.firebase;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.transfer.application.FailureCategory;
+import com.transfer.application.TransferException;
+import com.transfer.domain.RecurringFrequency;
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.domain.ScheduleAdvance;
+import com.transfer.domain.TransactionStatus;
+import com.transfer.ports.TransferRetry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Codec des documents lus et écrits à chaque exécution. Lecture en une passe sur getData() :
+// chaque champ est décodé une fois et validé au passage, le message d'erreur n'est construit
+// que pour un document invalide. Écriture à partir de gabarits des champs constants, dans des
+// maps dimensionnées d'avance qui ne sont jamais redimensionnées.
+public final class TransferDocumentCodec {
+    private static final Logger logger = LoggerFactory.getLogger(TransferDocumentCodec.class);
+
+    // Lu une fois : ZoneId.systemDefault() clone le fuseau par défaut à chaque appel
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final ZoneRules ZONE_RULES = ZONE.getRules();
+    // Heures d'exécution possibles, à la minute : aucune LocalTime allouée au décodage
+    private static final LocalTime[] MINUTES_OF_DAY = new LocalTime[24 * 60];
+    private static final String[] REQUIRED_FIELDS = {
+        "fromUserId", "toPhone", "amount", "frequency", "startDate", "executionTime", "isActive"
+    };
+
+    private static final int TRANSACTION_FIELDS = 16;
+    private static final int FAILED_TRANSACTION_FIELDS = 16;
+    private static final int EXECUTION_FIELDS = 8;
+    // Champs constants, recopiés dans chaque document ; jamais exposés ni modifiés
+    private static final Map<String, Object> TRANSACTION_TEMPLATE;
+    private static final Map<String, Object> FAILED_TRANSACTION_TEMPLATE;
+
+    static {
+        for (int minute = 0; minute < MINUTES_OF_DAY.length; minute++) {
+            MINUTES_OF_DAY[minute] = LocalTime.of(minute / 60, minute % 60);
+        }
+
+        Map<String, Object> transaction = new HashMap<>();
+        transaction.put("type", "recurringTransfer");
+        transaction.put("createdAt", FieldValue.serverTimestamp());
+        transaction.put("isCancelable", true);
+        transaction.put("cancelableUntil", null);
+        transaction.put("canceledAt", null);
+        transaction.put("failureReason", null);
+        transaction.put("retryCount", 0);
+        transaction.put("lastRetryAt", null);
+        TRANSACTION_TEMPLATE = transaction;
+
+        Map<String, Object> failed = new HashMap<>();
+        failed.put("type", "recurringTransfer");
+        failed.put("status", TransactionStatus.failed.name());
+        failed.put("createdAt", FieldValue.serverTimestamp());
+        failed.put("isCancelable", false);
+        failed.put("retryCount", 0);
+        failed.put("lastRetryAt", null);
+        FAILED_TRANSACTION_TEMPLATE = failed;
+    }
+
+    private TransferDocumentCodec() {
+    }
+
+    public static RecurringTransfer decodeRecurringTransfer(DocumentSnapshot document) {
+        return decodeRecurringTransfer(document.getId(), document.getData());
+    }
+
+    public static RecurringTransfer decodeRecurringTransfer(String id, Map<String, Object> data) {
+        try {
+            if (data == null) {
+                throw new IllegalArgumentException("Document vide");
+            }
+
+            String fromUserId = (String) data.get("fromUserId");
+            String toPhone = (String) data.get("toPhone");
+            Number amount = (Number) data.get("amount");
+            String frequency = (String) data.get("frequency");
+            Timestamp startDate = (Timestamp) data.get("startDate");
+            Object executionTime = data.get("executionTime");
+            Boolean isActive = (Boolean) data.get("isActive");
+            if (fromUserId == null || toPhone == null || amount == null || frequency == null
+                || startDate == null || executionTime == null || isActive == null) {
+                throw new IllegalArgumentException(
+                    "Champs manquants dans le document: " + String.join(", ", missingFields(data)));
+            }
+
+            return RecurringTransfer.builder()
+                .id(id)
+                .fromUserId(fromUserId)
+                .toPhone(toPhone)
+                .amount(amount.doubleValue())
+                .frequency(RecurringFrequency.fromString(frequency))
+                .startDate(toLocalDateTime(startDate))
+                .executionTime(decodeExecutionTime(executionTime))
+                .endDate(toLocalDateTime((Timestamp) data.get("endDate")))
+                .description((String) data.get("description"))
+                .lastExecuted(toLocalDateTime((Timestamp) data.get("lastExecuted")))
+                .nextExecution(toLocalDateTime((Timestamp) data.get("nextExecution")))
+                .isActive(isActive)
+                .build();
+        } catch (RuntimeException e) {
+            logger.error("Erreur lors de la conversion du document {} en RecurringTransfer", id, e);
+            throw new TransferException("Impossible de convertir le document Firebase en RecurringTransfer", e);
+        }
+    }
+
+    public static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        if (timestamp == null) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos()), ZONE);
+    }
+
+    // Même instant que atZone(ZONE).toInstant(), y compris dans les trous et chevauchements
+    // d'heure d'été, sans ZonedDateTime ni Instant intermédiaires
+    public static Timestamp toTimestamp(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        return Timestamp.ofTimeSecondsAndNanos(
+            dateTime.toEpochSecond(ZONE_RULES.getOffset(dateTime)), dateTime.getNano());
+    }
+
+    public static Timestamp toTimestamp(Instant instant) {
+        return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+    }
+
+    public static Map<String, Object> encodeTransaction(RecurringTransfer transfer, String toUserId,
+                                                        TransactionStatus status) {
+        Map<String, Object> data = HashMap.newHashMap(TRANSACTION_FIELDS);
+        data.putAll(TRANSACTION_TEMPLATE);
+        data.put("id", transfer.getId());
+        data.put("occurrenceId", transfer.occurrenceId());
+        data.put("scheduledAt", toTimestamp(transfer.getNextExecution()));
+        data.put("fromUserId", transfer.getFromUserId());
+        data.put("toUserId", toUserId);
+        data.put("amount", transfer.getAmount());
+        data.put("status", status.name());
+        data.put("description", transfer.getDescription());
+        return data;
+    }
+
+    public static Map<String, Object> encodeFailedTransaction(RecurringTransfer transfer, String toUserId,
+                                                              String reason) {
+        Map<String, Object> data = HashMap.newHashMap(FAILED_TRANSACTION_FIELDS);
+        data.putAll(FAILED_TRANSACTION_TEMPLATE);
+        data.put("id", transfer.getId());
+        data.put("occurrenceId", transfer.occurrenceId());
+        data.put("scheduledAt", toTimestamp(transfer.getNextExecution()));
+        data.put("fromUserId", transfer.getFromUserId());
+        data.put("toUserId", toUserId);
+        data.put("amount", transfer.getAmount());
+        data.put("description", transfer.getDescription());
+        data.put("failureReason", reason);
+        data.put("toPhone", transfer.getToPhone());
+        data.put("isRetryable", FailureCategory.fromReason(reason).isRetryable());
+        return data;
+    }
+
+    public static Map<String, Object> encodeExecution(RecurringTransfer transfer, String toUserId) {
+        Map<String, Object> data = HashMap.newHashMap(EXECUTION_FIELDS);
+        data.put("transferId", transfer.getId());
+        data.put("scheduledAt", toTimestamp(transfer.getNextExecution()));
+        data.put("fromUserId", transfer.getFromUserId());
+        data.put("toUserId", toUserId);
+        data.put("amount", transfer.getAmount());
+        data.put("transactionId", transfer.occurrenceId());
+        data.put("executedAt", FieldValue.serverTimestamp());
+        return data;
+    }
+
+    public static Map<String, Object> encodeExecution(TransferRetry retry, String toUserId) {
+        Map<String, Object> data = HashMap.newHashMap(EXECUTION_FIELDS);
+        data.put("transferId", retry.transferId());
+        data.put("scheduledAt", retry.scheduledAt() != null ? toTimestamp(retry.scheduledAt()) : null);
+        data.put("fromUserId", retry.fromUserId());
+        data.put("toUserId", toUserId);
+        data.put("amount", retry.amount());
+        data.put("transactionId", retry.transactionId());
+        data.put("retryCount", retry.retryCount() + 1);
+        data.put("executedAt", FieldValue.serverTimestamp());
+        return data;
+    }
+
+    public static Map<String, Object> encodeScheduleUpdate(ScheduleAdvance advance) {
+        Map<String, Object> updates = HashMap.newHashMap(2);
+        updates.put("lastExecuted", toTimestamp(advance.lastExecuted()));
+        updates.put("nextExecution", toTimestamp(advance.nextExecution()));
+        return updates;
+    }
+
+    private static LocalTime decodeExecutionTime(Object executionTime) {
+        if (!(executionTime instanceof Map<?, ?> time)) {
+            throw new IllegalArgumentException("executionTime doit être une Map");
+        }
+        if (!(time.get("hour") instanceof Number hour) || !(time.get("minute") instanceof Number minute)) {
+            throw new IllegalArgumentException("Les champs hour et minute sont requis dans executionTime");
+        }
+        int hourValue = hour.intValue();
+        int minuteValue = minute.intValue();
+        if (hourValue < 0 || hourValue > 23 || minuteValue < 0 || minuteValue > 59) {
+            throw new IllegalArgumentException("Format invalide pour executionTime: " + time);
+        }
+        return MINUTES_OF_DAY[hourValue * 60 + minuteValue];
+    }
+
+    // Chemin d'erreur seulement
+    private static List<String> missingFields(Map<String, Object> data) {
+        List<String> missing = new ArrayList<>();
+        for (String field : REQUIRED_FIELDS) {
+            if (data.get(field) == null) {
+                missing.add(field);
+            }
+        }
+        return missing;
+    }
+}
@@ -0,0 +1,52 @@
+package com.transfer.infrastructure.memory;
+
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.domain.TransactionStatus;
+import com.transfer.ports.AsyncTransferRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Variante non bloquante : chaque appel s'exécute sur un thread virtuel, la latence injectée
+// n'occupe donc pas de thread plateforme, comme un appel réseau en attente
+@Repository
+@Profile("inmemory")
+public class InMemoryAsyncTransferRepository implements AsyncTransferRepository {
+    private final InMemoryTransferRepository transferRepository;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public InMemoryAsyncTransferRepository(InMemoryTransferRepository transferRepository) {
+        this.transferRepository = transferRepository;
+    }
+
+    @Override
+    public CompletableFuture<String> findUserIdByPhone(String phone) {
+        return CompletableFuture.supplyAsync(() -> transferRepository.findUserIdByPhone(phone), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> createNotification(String userId, String title, String message) {
+        transferRepository.createNotification(userId, title, message);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> createFailedTransaction(RecurringTransfer transfer, String toUserId, String reason) {
+        return CompletableFuture.runAsync(
+            () -> transferRepository.createFailedTransaction(transfer, toUserId, reason), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> updateTransactionStatus(String transferId, TransactionStatus status) {
+        return CompletableFuture.runAsync(() -> transferRepository.updateTransactionStatus(transferId, status), executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+    }
+}
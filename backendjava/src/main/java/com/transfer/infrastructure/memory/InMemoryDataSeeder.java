@@ -0,0 +1,90 @@
+package com.transfer.infrastructure.memory;
+
+import com.transfer.domain.RecurringFrequency;
+import com.transfer.domain.RecurringTransfer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+// Peuple le store au démarrage pour les tests de charge : utilisateurs avec un solde initial et
+// transferts récurrents répartis sur les minutes de la journée. Graine fixe : jeux reproductibles.
+@Component
+@Profile("inmemory")
+public class InMemoryDataSeeder {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryDataSeeder.class);
+    private static final RecurringFrequency[] FREQUENCIES = RecurringFrequency.values();
+
+    private final InMemoryStore store;
+    private final Clock clock;
+    private final int userCount;
+    private final int transferCount;
+    private final double initialBalance;
+    private final double maxAmount;
+    private final long seed;
+
+    public InMemoryDataSeeder(
+        InMemoryStore store,
+        Clock clock,
+        @Value("${transfer.inmemory.seed.users:0}") int userCount,
+        @Value("${transfer.inmemory.seed.transfers:0}") int transferCount,
+        @Value("${transfer.inmemory.seed.initial-balance:100000}") double initialBalance,
+        @Value("${transfer.inmemory.seed.max-amount:5000}") double maxAmount,
+        @Value("${transfer.inmemory.seed.random-seed:42}") long seed
+    ) {
+        this.store = store;
+        this.clock = clock;
+        this.userCount = userCount;
+        this.transferCount = transferCount;
+        this.initialBalance = initialBalance;
+        this.maxAmount = maxAmount;
+        this.seed = seed;
+    }
+
+    @PostConstruct
+    public void seed() {
+        if (userCount <= 0) {
+            return;
+        }
+        for (int i = 0; i < userCount; i++) {
+            store.saveUser(userId(i), phone(i), initialBalance);
+        }
+
+        Random random = new Random(seed);
+        LocalDateTime now = LocalDateTime.now(clock).truncatedTo(ChronoUnit.MINUTES);
+        for (int i = 0; i < transferCount; i++) {
+            int minuteOfDay = i % (24 * 60);
+            RecurringTransfer transfer = RecurringTransfer.builder()
+                .id("transfer-" + i)
+                .fromUserId(userId(random.nextInt(userCount)))
+                .toPhone(phone(random.nextInt(userCount)))
+                .amount(Math.max(1, Math.round(random.nextDouble() * maxAmount)))
+                .frequency(FREQUENCIES[random.nextInt(FREQUENCIES.length)])
+                .startDate(now.truncatedTo(ChronoUnit.DAYS))
+                .executionTime(LocalTime.of(minuteOfDay / 60, minuteOfDay % 60))
+                .description("Transfert de charge " + i)
+                .isActive(true)
+                .build();
+            transfer.setNextExecution(transfer.computeNextExecution(now));
+            store.saveTransfer(transfer);
+        }
+        logger.info("Store mémoire peuplé : {} utilisateurs, {} transferts, solde total {}",
+            store.userCount(), store.transferCount(), store.totalBalance());
+    }
+
+    static String userId(int index) {
+        return "user-" + index;
+    }
+
+    static String phone(int index) {
+        return String.format("+221%09d", index);
+    }
+}
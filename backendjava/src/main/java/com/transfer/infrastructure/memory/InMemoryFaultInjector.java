@@ -0,0 +1,45 @@
+package com.transfer.infrastructure.memory;
+
+import com.transfer.application.TransferException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Simule le coût d'un appel Firestore : latence fixe plus une part aléatoire, et un taux
+// d'échec injecté, pour reproduire la contention et les erreurs d'un vrai backend
+@Component
+@Profile("inmemory")
+public class InMemoryFaultInjector {
+    private final long latencyNanos;
+    private final long jitterNanos;
+    private final double failureRate;
+
+    public InMemoryFaultInjector(
+        @Value("${transfer.inmemory.latency:0ms}") Duration latency,
+        @Value("${transfer.inmemory.latency-jitter:0ms}") Duration latencyJitter,
+        @Value("${transfer.inmemory.failure-rate:0.0}") double failureRate
+    ) {
+        this.latencyNanos = latency.toNanos();
+        this.jitterNanos = latencyJitter.toNanos();
+        this.failureRate = failureRate;
+    }
+
+    // Appelé avant chaque opération qui correspondrait à un aller-retour réseau
+    public void call(String operation) {
+        long delay = latencyNanos + (jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(jitterNanos) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(delay));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TransferException("Opération interrompue: " + operation, e);
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new TransferException("Échec injecté sur l'opération " + operation);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.transfer.infrastructure.memory;
+
+import com.transfer.ports.PartitionLease;
+import com.transfer.ports.PartitionLeaseStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+// Baux en mémoire : partagés par les instances d'une même JVM, ce qui suffit pour simuler
+// plusieurs schedulers en test de charge
+@Component
+@Profile("inmemory")
+public class InMemoryPartitionLeaseStore implements PartitionLeaseStore {
+    private final Map<Integer, PartitionLease> leases = new ConcurrentHashMap<>();
+    private final Map<String, Instant> instances = new ConcurrentHashMap<>();
+
+    @Override
+    public List<PartitionLease> findAll() {
+        return List.copyOf(leases.values());
+    }
+
+    @Override
+    public boolean tryAcquire(int partition, String ownerId, Instant now, Instant expiresAt) {
+        AtomicBoolean acquired = new AtomicBoolean();
+        leases.compute(partition, (key, current) -> {
+            if (current != null && !ownerId.equals(current.ownerId()) && current.isLiveAt(now)) {
+                return current;
+            }
+            acquired.set(true);
+            return new PartitionLease(partition, ownerId, expiresAt);
+        });
+        return acquired.get();
+    }
+
+    @Override
+    public void release(int partition, String ownerId) {
+        leases.computeIfPresent(partition, (key, current) -> ownerId.equals(current.ownerId()) ? null : current);
+    }
+
+    @Override
+    public void registerInstance(String instanceId, Instant expiresAt) {
+        instances.put(instanceId, expiresAt);
+    }
+
+    @Override
+    public Set<String> findLiveInstances(Instant now) {
+        return instances.entrySet().stream()
+            .filter(entry -> entry.getValue().isAfter(now))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void unregisterInstance(String instanceId) {
+        instances.remove(instanceId);
+    }
+}
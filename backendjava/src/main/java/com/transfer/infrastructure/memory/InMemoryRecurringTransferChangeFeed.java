@@ -0,0 +1,43 @@
+package com.transfer.infrastructure.memory;
+
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.ports.RecurringTransferChange;
+import com.transfer.ports.RecurringTransferChangeFeed;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+
+// Flux de changements du store mémoire, avec la même forme que l'écoute Firestore :
+// instantané des transferts actifs, puis un delta par écriture
+@Component
+@Profile("inmemory")
+public class InMemoryRecurringTransferChangeFeed implements RecurringTransferChangeFeed {
+    private final InMemoryStore store;
+    private final Clock clock;
+
+    public InMemoryRecurringTransferChangeFeed(InMemoryStore store, Clock clock) {
+        this.store = store;
+        this.clock = clock;
+    }
+
+    @Override
+    public Subscription subscribe(Listener listener) {
+        // Abonnement avant l'instantané : une écriture concurrente est au pire appliquée deux fois
+        Runnable unsubscribe = store.addTransferListener(transfer -> listener.onChanges(List.of(toChange(transfer)), false));
+        Instant readTime = clock.instant();
+        listener.onChanges(
+            store.activeTransfers().stream().map(transfer -> RecurringTransferChange.upsert(transfer, readTime)).toList(),
+            true
+        );
+        return unsubscribe::run;
+    }
+
+    private RecurringTransferChange toChange(RecurringTransfer transfer) {
+        return transfer.isActive()
+            ? RecurringTransferChange.upsert(transfer, clock.instant())
+            : RecurringTransferChange.removal(transfer.getId(), clock.instant());
+    }
+}
@@ -0,0 +1,47 @@
+package com.transfer.infrastructure.memory;
+
+import com.transfer.ports.SchedulerWatermarkStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+@Profile("inmemory")
+public class InMemorySchedulerWatermarkStore implements SchedulerWatermarkStore {
+    private final AtomicReference<Instant> watermark = new AtomicReference<>();
+    private final Map<Integer, Instant> partitionWatermarks = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Instant> load() {
+        return Optional.ofNullable(watermark.get());
+    }
+
+    @Override
+    public void save(Instant value) {
+        watermark.set(value);
+    }
+
+    @Override
+    public Map<Integer, Instant> loadPartitions(Collection<Integer> partitions) {
+        Map<Integer, Instant> result = new HashMap<>();
+        for (Integer partition : partitions) {
+            Instant value = partitionWatermarks.get(partition);
+            if (value != null) {
+                result.put(partition, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void savePartitions(Collection<Integer> partitions, Instant value) {
+        partitions.forEach(partition -> partitionWatermarks.put(partition, value));
+    }
+}
@@ -0,0 +1,418 @@
+package com.transfer.infrastructure.memory;
+
+import com.google.cloud.firestore.FieldValue;
+import com.transfer.application.TransferException;
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.domain.ScheduleAdvance;
+import com.transfer.infrastructure.firebase.FirebaseTransferMapper;
+import com.transfer.infrastructure.firebase.TransactionRetryMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Équivalent mémoire des collections Firestore (recurring_transfers, users, transactions,
+// notifications) avec les index secondaires sur phone et isActive/nextExecution.
+// Les transactions sont optimistes comme celles de Firestore : lectures versionnées, validation
+// au commit sous verrous, puis rejeu de la fonction en cas de conflit.
+@Component
+@Profile("inmemory")
+public class InMemoryStore {
+    private static final int LOCK_STRIPES = 1024;
+    private static final long MISSING_VERSION = -1;
+
+    private final Map<String, RecurringTransfer> transfers = new ConcurrentHashMap<>();
+    // Index isActive + nextExecution : seuls les transferts actifs ayant une échéance y figurent
+    private final NavigableSet<DueEntry> activeByNextExecution = new ConcurrentSkipListSet<>();
+    private final Set<String> activeTransferIds = ConcurrentHashMap.newKeySet();
+    private final Map<String, UserAccount> users = new ConcurrentHashMap<>();
+    private final Map<String, String> userIdsByPhone = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Object>> transactions = new ConcurrentHashMap<>();
+    // Registre d'idempotence des échéances exécutées (transfer_executions)
+    private final Map<String, Map<String, Object>> executions = new ConcurrentHashMap<>();
+    private final Queue<Map<String, Object>> notifications = new ConcurrentLinkedQueue<>();
+    private final AtomicLong notificationCount = new AtomicLong();
+    private final AtomicInteger retainedNotifications = new AtomicInteger();
+    private final ReentrantLock[] commitLocks = new ReentrantLock[LOCK_STRIPES];
+    private final List<Consumer<RecurringTransfer>> transferListeners = new CopyOnWriteArrayList<>();
+
+    private final Clock clock;
+    private final InMemoryFaultInjector faultInjector;
+    private final TransactionRetryMetrics transactionRetryMetrics;
+    private final int maxAttempts;
+    private final int notificationRetention;
+
+    public InMemoryStore(
+        Clock clock,
+        InMemoryFaultInjector faultInjector,
+        TransactionRetryMetrics transactionRetryMetrics,
+        @Value("${transfer.inmemory.max-attempts:5}") int maxAttempts,
+        @Value("${transfer.inmemory.notification-retention:10000}") int notificationRetention
+    ) {
+        this.clock = clock;
+        this.faultInjector = faultInjector;
+        this.transactionRetryMetrics = transactionRetryMetrics;
+        this.maxAttempts = maxAttempts;
+        this.notificationRetention = notificationRetention;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            commitLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public InMemoryFaultInjector faultInjector() {
+        return faultInjector;
+    }
+
+    // --- recurring_transfers ---
+
+    public void saveTransfer(RecurringTransfer transfer) {
+        RecurringTransfer stored = copy(transfer);
+        transfers.compute(stored.getId(), (id, previous) -> {
+            reindex(previous, stored);
+            return stored;
+        });
+        publish(stored);
+    }
+
+    public void updateTransfer(String transferId, Consumer<RecurringTransfer> update) {
+        RecurringTransfer updated = transfers.compute(transferId, (id, previous) -> {
+            if (previous == null) {
+                throw new TransferException("Transfert non trouvé: " + transferId);
+            }
+            RecurringTransfer modified = copy(previous);
+            update.accept(modified);
+            reindex(previous, modified);
+            return modified;
+        });
+        publish(updated);
+    }
+
+    public void advanceSchedule(ScheduleAdvance advance) {
+        updateTransfer(advance.transferId(), advance::applyTo);
+    }
+
+    // Équivalent d'un snapshot listener : chaque écriture d'un transfert est notifiée aux abonnés
+    public Runnable addTransferListener(Consumer<RecurringTransfer> listener) {
+        transferListeners.add(listener);
+        return () -> transferListeners.remove(listener);
+    }
+
+    public List<RecurringTransfer> activeTransfers() {
+        List<RecurringTransfer> active = new ArrayList<>(activeTransferIds.size());
+        forEachActiveTransfer(active::add);
+        return active;
+    }
+
+    public void forEachActiveTransfer(Consumer<RecurringTransfer> consumer) {
+        for (String id : activeTransferIds) {
+            RecurringTransfer transfer = transfers.get(id);
+            if (transfer != null && transfer.isActive()) {
+                consumer.accept(copy(transfer));
+            }
+        }
+    }
+
+    public List<RecurringTransfer> transfersDueBetween(LocalDateTime from, LocalDateTime to) {
+        List<RecurringTransfer> due = new ArrayList<>();
+        for (DueEntry entry : activeByNextExecution.subSet(new DueEntry(from, ""), true, new DueEntry(to, ""), false)) {
+            RecurringTransfer transfer = transfers.get(entry.transferId());
+            if (transfer != null && transfer.isActive() && entry.at().equals(transfer.getNextExecution())) {
+                due.add(copy(transfer));
+            }
+        }
+        return due;
+    }
+
+    public int transferCount() {
+        return transfers.size();
+    }
+
+    // --- users ---
+
+    public void saveUser(String userId, String phone, double balance) {
+        ReentrantLock lock = lockFor("users/" + userId);
+        lock.lock();
+        try {
+            users.compute(userId, (id, previous) -> {
+                if (previous != null && previous.phone() != null) {
+                    userIdsByPhone.remove(previous.phone(), userId);
+                }
+                if (phone != null) {
+                    userIdsByPhone.put(phone, userId);
+                }
+                return new UserAccount(userId, phone, balance, previous == null ? 0 : previous.version() + 1);
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public UserAccount user(String userId) {
+        return users.get(userId);
+    }
+
+    public String findUserIdByPhone(String phone) {
+        return userIdsByPhone.get(phone);
+    }
+
+    public int userCount() {
+        return users.size();
+    }
+
+    // Somme des soldes : constante tant que les transferts restent atomiques
+    public double totalBalance() {
+        return users.values().stream().mapToDouble(UserAccount::balance).sum();
+    }
+
+    // --- transactions ---
+
+    public void putTransaction(String transactionId, Map<String, Object> data) {
+        transactions.put(transactionId, resolveServerValues(data));
+    }
+
+    public Map<String, Object> transaction(String transactionId) {
+        Map<String, Object> data = transactions.get(transactionId);
+        return data == null ? null : new HashMap<>(data);
+    }
+
+    public void updateTransaction(String transactionId, Map<String, Object> updates) {
+        transactions.compute(transactionId, (id, previous) -> {
+            if (previous == null) {
+                throw new TransferException("Transaction non trouvée: " + transactionId);
+            }
+            Map<String, Object> updated = new HashMap<>(previous);
+            updated.putAll(resolveServerValues(updates));
+            return updated;
+        });
+    }
+
+    public int transactionCount() {
+        return transactions.size();
+    }
+
+    // --- notifications ---
+
+    // Seules les dernières notifications sont conservées pour borner la mémoire des tests de charge
+    public void addNotification(Map<String, Object> notification) {
+        notifications.add(notification);
+        notificationCount.incrementAndGet();
+        if (retainedNotifications.incrementAndGet() > notificationRetention && notifications.poll() != null) {
+            retainedNotifications.decrementAndGet();
+        }
+    }
+
+    public long notificationCount() {
+        return notificationCount.get();
+    }
+
+    // --- transactions optimistes ---
+
+    public <T> T runTransaction(Function<Transaction, T> function) {
+        int attempts = 0;
+        try {
+            while (true) {
+                attempts++;
+                Transaction transaction = new Transaction();
+                T result = function.apply(transaction);
+                faultInjector.call("commit");
+                if (commit(transaction)) {
+                    // Hors des verrous du commit : la mise à jour notifie les abonnés du transfert
+                    transaction.scheduleUpdates.forEach(this::advanceSchedule);
+                    return result;
+                }
+                if (attempts >= maxAttempts) {
+                    throw new TransferException("Transaction abandonnée après " + attempts + " tentatives (contention)");
+                }
+            }
+        } finally {
+            transactionRetryMetrics.record(attempts);
+        }
+    }
+
+    private boolean commit(Transaction transaction) {
+        // Verrous pris dans un ordre fixe pour éviter les interblocages entre commits concurrents
+        TreeSet<Integer> stripes = new TreeSet<>();
+        transaction.readVersions.keySet().forEach(userId -> stripes.add(stripe("users/" + userId)));
+        transaction.balanceDeltas.keySet().forEach(userId -> stripes.add(stripe("users/" + userId)));
+        transaction.transactionWrites.keySet().forEach(id -> stripes.add(stripe("transactions/" + id)));
+        transaction.transactionUpdates.keySet().forEach(id -> stripes.add(stripe("transactions/" + id)));
+        transaction.executionReads.forEach(id -> stripes.add(stripe("executions/" + id)));
+        transaction.executionClaims.keySet().forEach(id -> stripes.add(stripe("executions/" + id)));
+
+        stripes.forEach(index -> commitLocks[index].lock());
+        try {
+            for (Map.Entry<String, Long> read : transaction.readVersions.entrySet()) {
+                UserAccount current = users.get(read.getKey());
+                long version = current == null ? MISSING_VERSION : current.version();
+                if (version != read.getValue()) {
+                    return false;
+                }
+            }
+            // Une échéance lue libre ou à réclamer ne doit pas avoir été réclamée entre-temps
+            for (String occurrenceId : transaction.executionReads) {
+                if (executions.containsKey(occurrenceId)) {
+                    return false;
+                }
+            }
+            for (String occurrenceId : transaction.executionClaims.keySet()) {
+                if (executions.containsKey(occurrenceId)) {
+                    return false;
+                }
+            }
+            for (String userId : transaction.balanceDeltas.keySet()) {
+                if (!users.containsKey(userId)) {
+                    throw new TransferException("Utilisateur non trouvé: " + userId);
+                }
+            }
+            for (String transactionId : transaction.transactionUpdates.keySet()) {
+                if (!transactions.containsKey(transactionId) && !transaction.transactionWrites.containsKey(transactionId)) {
+                    throw new TransferException("Transaction non trouvée: " + transactionId);
+                }
+            }
+
+            transaction.balanceDeltas.forEach((userId, delta) ->
+                users.computeIfPresent(userId, (id, account) -> account.withBalanceDelta(delta)));
+            transaction.transactionWrites.forEach(this::putTransaction);
+            transaction.transactionUpdates.forEach(this::updateTransaction);
+            transaction.executionClaims.forEach((id, data) -> executions.put(id, resolveServerValues(data)));
+            return true;
+        } finally {
+            stripes.descendingSet().forEach(index -> commitLocks[index].unlock());
+        }
+    }
+
+    private void publish(RecurringTransfer transfer) {
+        for (Consumer<RecurringTransfer> listener : transferListeners) {
+            listener.accept(copy(transfer));
+        }
+    }
+
+    private ReentrantLock lockFor(String key) {
+        return commitLocks[stripe(key)];
+    }
+
+    private static int stripe(String key) {
+        return Math.floorMod(key.hashCode(), LOCK_STRIPES);
+    }
+
+    private void reindex(RecurringTransfer previous, RecurringTransfer current) {
+        if (previous != null && previous.getNextExecution() != null) {
+            activeByNextExecution.remove(new DueEntry(previous.getNextExecution(), previous.getId()));
+        }
+        if (current.isActive()) {
+            activeTransferIds.add(current.getId());
+            if (current.getNextExecution() != null) {
+                activeByNextExecution.add(new DueEntry(current.getNextExecution(), current.getId()));
+            }
+        } else {
+            activeTransferIds.remove(current.getId());
+        }
+    }
+
+    // Remplace les sentinelles serverTimestamp des maps du mapper Firestore par l'heure courante
+    private Map<String, Object> resolveServerValues(Map<String, Object> data) {
+        Map<String, Object> resolved = new HashMap<>(data);
+        resolved.replaceAll((field, value) -> FieldValue.serverTimestamp().equals(value)
+            ? FirebaseTransferMapper.toTimestamp(clock.instant())
+            : value);
+        return resolved;
+    }
+
+    // Les appelants reçoivent des copies, comme des documents relus depuis Firestore
+    static RecurringTransfer copy(RecurringTransfer transfer) {
+        return RecurringTransfer.builder()
+            .id(transfer.getId())
+            .fromUserId(transfer.getFromUserId())
+            .toPhone(transfer.getToPhone())
+            .amount(transfer.getAmount())
+            .frequency(transfer.getFrequency())
+            .startDate(transfer.getStartDate())
+            .executionTime(transfer.getExecutionTime())
+            .endDate(transfer.getEndDate())
+            .description(transfer.getDescription())
+            .lastExecuted(transfer.getLastExecuted())
+            .nextExecution(transfer.getNextExecution())
+            .isActive(transfer.isActive())
+            .build();
+    }
+
+    // Lectures et écritures d'une tentative de transaction, appliquées seulement au commit
+    public final class Transaction {
+        private final Map<String, Long> readVersions = new HashMap<>();
+        private final Map<String, Double> balanceDeltas = new LinkedHashMap<>();
+        private final Map<String, Map<String, Object>> transactionWrites = new LinkedHashMap<>();
+        private final Map<String, Map<String, Object>> transactionUpdates = new LinkedHashMap<>();
+        private final Set<String> executionReads = new HashSet<>();
+        private final Map<String, Map<String, Object>> executionClaims = new LinkedHashMap<>();
+        private final List<ScheduleAdvance> scheduleUpdates = new ArrayList<>();
+
+        private Transaction() {
+        }
+
+        public UserAccount getUser(String userId) {
+            faultInjector.call("get users/" + userId);
+            UserAccount account = users.get(userId);
+            readVersions.putIfAbsent(userId, account == null ? MISSING_VERSION : account.version());
+            return account;
+        }
+
+        // Lecture du registre : true si l'échéance a déjà été exécutée
+        public boolean isExecuted(String occurrenceId) {
+            faultInjector.call("get transfer_executions/" + occurrenceId);
+            boolean executed = executions.containsKey(occurrenceId);
+            if (!executed) {
+                executionReads.add(occurrenceId);
+            }
+            return executed;
+        }
+
+        public void claimExecution(String occurrenceId, Map<String, Object> data) {
+            executionClaims.put(occurrenceId, data);
+        }
+
+        public void advanceSchedule(ScheduleAdvance advance) {
+            scheduleUpdates.add(advance);
+        }
+
+        public void incrementBalance(String userId, double delta) {
+            balanceDeltas.merge(userId, delta, Double::sum);
+        }
+
+        public void setTransaction(String transactionId, Map<String, Object> data) {
+            transactionWrites.put(transactionId, data);
+        }
+
+        public void updateTransaction(String transactionId, Map<String, Object> updates) {
+            transactionUpdates.computeIfAbsent(transactionId, id -> new HashMap<>()).putAll(updates);
+        }
+    }
+
+    private record DueEntry(LocalDateTime at, String transferId) implements Comparable<DueEntry> {
+        @Override
+        public int compareTo(DueEntry other) {
+            int byTime = at.compareTo(other.at);
+            return byTime != 0 ? byTime : transferId.compareTo(other.transferId);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.transfer.infrastructure.memory;
+
+import com.transfer.application.RetryPolicy;
+import com.transfer.application.TransferException;
+import com.transfer.application.TransferMetrics;
+import com.transfer.domain.ExecutionOutcome;
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.domain.ScheduleAdvance;
+import com.transfer.domain.TransactionStatus;
+import com.transfer.infrastructure.firebase.FirebaseTransferMapper;
+import com.transfer.ports.TransferRepository;
+import com.transfer.ports.TransferRetry;
+import com.transfer.ports.TransferRetryQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Implémentation mémoire du port, avec la même sémantique que FirebaseTransferRepository :
+// destinataire inconnu ou solde insuffisant donnent une transaction FAILED et une notification,
+// les soldes ne bougent que dans une transaction optimiste
+@Repository
+@Profile("inmemory")
+public class InMemoryTransferRepository implements TransferRepository {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryTransferRepository.class);
+    private static final Comparator<RecurringTransfer> BATCH_LEG_PRIORITY = Comparator
+        .comparingDouble(RecurringTransfer::getAmount)
+        .thenComparing(RecurringTransfer::getId);
+
+    private final InMemoryStore store;
+    private final InMemoryFaultInjector faultInjector;
+    private final Clock clock;
+    private final TransferMetrics transferMetrics;
+    private final TransferRetryQueue retryQueue;
+    private final RetryPolicy retryPolicy;
+
+    public InMemoryTransferRepository(InMemoryStore store, Clock clock, TransferMetrics transferMetrics,
+                                      TransferRetryQueue retryQueue, RetryPolicy retryPolicy) {
+        this.store = store;
+        this.faultInjector = store.faultInjector();
+        this.clock = clock;
+        this.transferMetrics = transferMetrics;
+        this.retryQueue = retryQueue;
+        this.retryPolicy = retryPolicy;
+    }
+
+    @Override
+    public void forEachActiveTransfer(Consumer<RecurringTransfer> consumer) {
+        faultInjector.call("forEachActiveTransfer");
+        store.forEachActiveTransfer(consumer);
+    }
+
+    @Override
+    public List<RecurringTransfer> findTransfersDueBetween(Instant from, Instant to) {
+        faultInjector.call("findTransfersDueBetween");
+        return store.transfersDueBetween(
+            LocalDateTime.ofInstant(from, ZoneId.systemDefault()),
+            LocalDateTime.ofInstant(to, ZoneId.systemDefault())
+        );
+    }
+
+    @Override
+    public void updateLastExecuted(String transferId, LocalDateTime executionDate, LocalDateTime nextExecution) {
+        faultInjector.call("updateLastExecuted");
+        store.updateTransfer(transferId, transfer -> {
+            transfer.setLastExecuted(executionDate);
+            transfer.setNextExecution(nextExecution);
+        });
+    }
+
+    @Override
+    public void updateNextExecution(String transferId, LocalDateTime nextExecution) {
+        faultInjector.call("updateNextExecution");
+        store.updateTransfer(transferId, transfer -> transfer.setNextExecution(nextExecution));
+    }
+
+    @Override
+    public void createNotification(String userId, String title, String message) {
+        store.addNotification(FirebaseTransferMapper.toFirestoreNotification(userId, title, message));
+    }
+
+    @Override
+    public void executeTransfer(RecurringTransfer transfer, ScheduleAdvance advance) {
+        String toUserId = null;
+        try {
+            toUserId = findUserIdByPhone(transfer.getToPhone());
+            if (toUserId == null) {
+                createFailedTransaction(transfer, null, "Destinataire non trouvé", advance);
+                return;
+            }
+
+            String recipient = toUserId;
+            ExecutionOutcome outcome = transferMetrics.time(TransferMetrics.Stage.transaction,
+                () -> store.runTransaction(transaction -> {
+                UserAccount sender = transaction.getUser(transfer.getFromUserId());
+                if (sender == null) {
+                    throw new TransferException("Expéditeur non trouvé: " + transfer.getFromUserId());
+                }
+                if (transaction.isExecuted(transfer.occurrenceId())) {
+                    return ExecutionOutcome.alreadyExecuted;
+                }
+                if (sender.balance() < transfer.getAmount()) {
+                    return ExecutionOutcome.insufficientFunds;
+                }
+                transaction.incrementBalance(transfer.getFromUserId(), -transfer.getAmount());
+                transaction.incrementBalance(recipient, transfer.getAmount());
+                transaction.setTransaction(transfer.occurrenceId(),
+                    FirebaseTransferMapper.createTransactionMap(transfer, recipient, TransactionStatus.success));
+                transaction.claimExecution(transfer.occurrenceId(),
+                    FirebaseTransferMapper.createExecutionMap(transfer, recipient));
+                transaction.advanceSchedule(advance);
+                return ExecutionOutcome.executed;
+            }));
+
+            switch (outcome) {
+                case insufficientFunds -> createFailedTransaction(transfer, toUserId, "Solde insuffisant", advance);
+                case alreadyExecuted -> {
+                    logger.info("Échéance {} déjà exécutée, ignorée", transfer.occurrenceId());
+                    store.advanceSchedule(advance);
+                }
+                case executed -> { }
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors de l'exécution du transfert: {}", e.getMessage());
+            createFailedTransaction(transfer, toUserId, e.getMessage(), advance);
+        }
+    }
+
+    @Override
+    public void executeTransferBatch(List<RecurringTransfer> transfers, Map<String, ScheduleAdvance> advances) {
+        if (transfers.isEmpty()) {
+            return;
+        }
+        String fromUserId = transfers.get(0).getFromUserId();
+        Map<String, String> recipients = findUserIdsByPhones(
+            transfers.stream().map(RecurringTransfer::getToPhone).toList()
+        );
+
+        List<RecurringTransfer> legs = new ArrayList<>();
+        for (RecurringTransfer transfer : transfers) {
+            if (recipients.get(transfer.getToPhone()) == null) {
+                createFailedTransaction(transfer, null, "Destinataire non trouvé", advances.get(transfer.getId()));
+            } else {
+                legs.add(transfer);
+            }
+        }
+        if (legs.isEmpty()) {
+            return;
+        }
+        legs.sort(BATCH_LEG_PRIORITY);
+
+        try {
+            List<RecurringTransfer> rejected = transferMetrics.time(TransferMetrics.Stage.transaction,
+                () -> store.runTransaction(transaction -> {
+                UserAccount sender = transaction.getUser(fromUserId);
+                if (sender == null) {
+                    throw new TransferException("Expéditeur non trouvé: " + fromUserId);
+                }
+
+                double remainingBalance = sender.balance();
+                List<RecurringTransfer> insufficient = new ArrayList<>();
+                for (RecurringTransfer leg : legs) {
+                    if (transaction.isExecuted(leg.occurrenceId())) {
+                        transaction.advanceSchedule(advances.get(leg.getId()));
+                        continue;
+                    }
+                    if (remainingBalance < leg.getAmount()) {
+                        insufficient.add(leg);
+                        continue;
+                    }
+                    remainingBalance -= leg.getAmount();
+
+                    String toUserId = recipients.get(leg.getToPhone());
+                    transaction.incrementBalance(fromUserId, -leg.getAmount());
+                    transaction.incrementBalance(toUserId, leg.getAmount());
+                    transaction.setTransaction(leg.occurrenceId(),
+                        FirebaseTransferMapper.createTransactionMap(leg, toUserId, TransactionStatus.success));
+                    transaction.claimExecution(leg.occurrenceId(), FirebaseTransferMapper.createExecutionMap(leg, toUserId));
+                    transaction.advanceSchedule(advances.get(leg.getId()));
+                }
+                return insufficient;
+            }));
+
+            for (RecurringTransfer leg : rejected) {
+                createFailedTransaction(leg, recipients.get(leg.getToPhone()), "Solde insuffisant", advances.get(leg.getId()));
+            }
+        } catch (Exception e) {
+            logger.error("Erreur lors de l'exécution groupée des transferts de {}: {}", fromUserId, e.getMessage());
+            for (RecurringTransfer leg : legs) {
+                createFailedTransaction(leg, recipients.get(leg.getToPhone()), e.getMessage(), advances.get(leg.getId()));
+            }
+        }
+    }
+
+    @Override
+    public void createFailedTransaction(RecurringTransfer transfer, String toUserId, String reason) {
+        createFailedTransaction(transfer, toUserId, reason, null);
+    }
+
+    private void createFailedTransaction(RecurringTransfer transfer, String toUserId, String reason, ScheduleAdvance advance) {
+        transferMetrics.recordFailure(reason);
+        try {
+            faultInjector.call("createFailedTransaction");
+            store.putTransaction(transfer.occurrenceId(),
+                FirebaseTransferMapper.createFailedTransactionMap(transfer, toUserId, reason));
+            retryPolicy.nextAttempt(reason, 0).ifPresent(attemptAt ->
+                retryQueue.enqueue(TransferRetry.firstAttempt(transfer, toUserId, reason, attemptAt)));
+            if (advance != null) {
+                store.advanceSchedule(advance);
+            }
+            createNotification(
+                transfer.getFromUserId(),
+                "Échec du transfert programmé",
+                String.format(
+                    "Le transfert de %.2f FCFA vers %s a échoué : %s",
+                    transfer.getAmount(),
+                    transfer.getToPhone(),
+                    reason
+                )
+            );
+        } catch (Exception e) {
+            logger.error("Erreur lors de la création de la transaction échouée: {}", e.getMessage());
+            throw new TransferException("Impossible de créer la transaction échouée", e);
+        }
+    }
+
+    @Override
+    public void createFailedTransactions(List<RecurringTransfer> transfers, Map<String, String> recipients,
+                                         Map<String, ScheduleAdvance> advances, String reason) {
+        for (RecurringTransfer transfer : transfers) {
+            createFailedTransaction(transfer, recipients.get(transfer.getToPhone()), reason, advances.get(transfer.getId()));
+        }
+    }
+
+    // Rien en attente : les échéances sont écrites avec le résultat de chaque exécution
+    @Override
+    public boolean flushScheduleUpdates() {
+        return true;
+    }
+
+    @Override
+    public void updateTransactionStatus(String transferId, TransactionStatus status) {
+        faultInjector.call("updateTransactionStatus");
+        store.updateTransaction(transferId, statusUpdates(transferId, status));
+    }
+
+    @Override
+    public ExecutionOutcome retryFailedTransfer(TransferRetry retry) {
+        faultInjector.call("retryFailedTransfer");
+        String toUserId = retry.toUserId() != null ? retry.toUserId() : findUserIdByPhone(retry.toPhone());
+        if (toUserId == null) {
+            throw new TransferException("Destinataire non trouvé");
+        }
+
+        ExecutionOutcome outcome = transferMetrics.time(TransferMetrics.Stage.transaction,
+            () -> store.runTransaction(transaction -> {
+            UserAccount sender = transaction.getUser(retry.fromUserId());
+            if (sender == null) {
+                throw new TransferException("Expéditeur non trouvé: " + retry.fromUserId());
+            }
+            if (transaction.isExecuted(retry.transactionId())) {
+                return ExecutionOutcome.alreadyExecuted;
+            }
+            if (sender.balance() < retry.amount()) {
+                transaction.updateTransaction(retry.transactionId(), Map.of(
+                    "retryCount", retry.retryCount() + 1,
+                    "lastRetryAt", FirebaseTransferMapper.toTimestamp(clock.instant()),
+                    "failureReason", "Solde insuffisant"
+                ));
+                return ExecutionOutcome.insufficientFunds;
+            }
+            transaction.incrementBalance(retry.fromUserId(), -retry.amount());
+            transaction.incrementBalance(toUserId, retry.amount());
+            transaction.updateTransaction(retry.transactionId(), Map.of(
+                "status", TransactionStatus.success.name(),
+                "toUserId", toUserId,
+                "retryCount", retry.retryCount() + 1,
+                "lastRetryAt", FirebaseTransferMapper.toTimestamp(clock.instant())
+            ));
+            transaction.claimExecution(retry.transactionId(), FirebaseTransferMapper.createExecutionMap(retry, toUserId));
+            return ExecutionOutcome.executed;
+        }));
+
+        if (outcome == ExecutionOutcome.executed) {
+            createNotification(
+                retry.fromUserId(),
+                "Transfert relancé avec succès",
+                String.format("Le transfert de %.2f FCFA vers %s a été effectué", retry.amount(), retry.toPhone())
+            );
+        }
+        return outcome;
+    }
+
+    @Override
+    public String findUserIdByPhone(String phone) {
+        return transferMetrics.time(TransferMetrics.Stage.phoneLookup, () -> {
+            faultInjector.call("findUserIdByPhone");
+            return store.findUserIdByPhone(phone);
+        });
+    }
+
+    @Override
+    public Map<String, String> findUserIdsByPhones(Collection<String> phones) {
+        // Une requête "in" par paquet de 30 numéros côté Firestore ; ici un seul appel simulé
+        return transferMetrics.time(TransferMetrics.Stage.phoneLookup, () -> {
+            faultInjector.call("findUserIdsByPhones");
+            Map<String, String> resolved = new HashMap<>();
+            for (String phone : new LinkedHashSet<>(phones)) {
+                String userId = store.findUserIdByPhone(phone);
+                if (userId != null) {
+                    resolved.put(phone, userId);
+                }
+            }
+            return resolved;
+        });
+    }
+
+    @Override
+    public Map<String, Double> findBalances(Collection<String> userIds) {
+        return transferMetrics.time(TransferMetrics.Stage.balanceScreening, () -> {
+            faultInjector.call("findBalances");
+            Map<String, Double> balances = new HashMap<>();
+            for (String userId : userIds) {
+                UserAccount user = store.user(userId);
+                if (user != null) {
+                    balances.put(userId, user.balance());
+                }
+            }
+            return balances;
+        });
+    }
+
+    // Même contenu que FirebaseTransferMapper.createStatusUpdateMap, avec l'incrément déjà appliqué
+    private Map<String, Object> statusUpdates(String transferId, TransactionStatus status) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("status", status.name());
+        if (status == TransactionStatus.retrying) {
+            Map<String, Object> current = store.transaction(transferId);
+            int retryCount = current != null && current.get("retryCount") instanceof Number count ? count.intValue() : 0;
+            updates.put("lastRetryAt", FirebaseTransferMapper.toTimestamp(clock.instant()));
+            updates.put("retryCount", retryCount + 1);
+        }
+        return updates;
+    }
+}
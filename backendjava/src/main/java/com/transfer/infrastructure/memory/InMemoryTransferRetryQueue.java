@@ -0,0 +1,60 @@
+package com.transfer.infrastructure.memory;
+
+import com.transfer.ports.TransferRetry;
+import com.transfer.ports.TransferRetryQueue;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Profile("inmemory")
+public class InMemoryTransferRetryQueue implements TransferRetryQueue {
+    private static final Comparator<TransferRetry> BY_NEXT_ATTEMPT = Comparator
+        .comparing(TransferRetry::nextAttemptAt)
+        .thenComparing(TransferRetry::transactionId);
+
+    private final Map<String, TransferRetry> retries = new ConcurrentHashMap<>();
+
+    @Override
+    public void enqueue(TransferRetry retry) {
+        retries.put(retry.transactionId(), retry);
+    }
+
+    @Override
+    public List<TransferRetry> findDue(Instant now, int limit) {
+        List<TransferRetry> due = new ArrayList<>();
+        for (TransferRetry retry : retries.values()) {
+            if (!retry.nextAttemptAt().isAfter(now)) {
+                due.add(retry);
+            }
+        }
+        due.sort(BY_NEXT_ATTEMPT);
+        return due.size() > limit ? new ArrayList<>(due.subList(0, limit)) : due;
+    }
+
+    @Override
+    public void reschedule(String transactionId, int retryCount, Instant nextAttemptAt, String reason) {
+        retries.computeIfPresent(transactionId, (id, retry) -> retry.withAttempt(retryCount, nextAttemptAt, reason));
+    }
+
+    @Override
+    public boolean expedite(String transactionId, Instant now) {
+        return retries.computeIfPresent(transactionId,
+            (id, retry) -> retry.withAttempt(retry.retryCount(), now, retry.lastFailureReason())) != null;
+    }
+
+    @Override
+    public void remove(String transactionId) {
+        retries.remove(transactionId);
+    }
+
+    public int size() {
+        return retries.size();
+    }
+}
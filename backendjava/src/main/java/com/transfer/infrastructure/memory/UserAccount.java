@@ -0,0 +1,9 @@
+package com.transfer.infrastructure.memory;
+
+// Document users immuable : chaque écriture produit une nouvelle version
+public record UserAccount(String id, String phone, double balance, long version) {
+
+    UserAccount withBalanceDelta(double delta) {
+        return new UserAccount(id, phone, balance + delta, version + 1);
+    }
+}
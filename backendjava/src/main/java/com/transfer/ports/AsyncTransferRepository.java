@@ -0,0 +1,13 @@
+package com.transfer.ports;
+
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.domain.TransactionStatus;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncTransferRepository {
+    CompletableFuture<String> findUserIdByPhone(String phone);
+    CompletableFuture<Void> createNotification(String userId, String title, String message);
+    CompletableFuture<Void> createFailedTransaction(RecurringTransfer transfer, String toUserId, String reason);
+    CompletableFuture<Void> updateTransactionStatus(String transferId, TransactionStatus status);
+}
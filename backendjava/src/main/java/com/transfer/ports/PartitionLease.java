@@ -0,0 +1,11 @@
+package com.transfer.ports;
+
+import java.time.Instant;
+
+// Bail d'une partition du scheduler : son propriétaire l'exécute jusqu'à expiresAt
+public record PartitionLease(int partition, String ownerId, Instant expiresAt) {
+
+    public boolean isLiveAt(Instant now) {
+        return expiresAt.isAfter(now);
+    }
+}
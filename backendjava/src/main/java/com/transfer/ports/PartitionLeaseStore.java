@@ -0,0 +1,23 @@
+package com.transfer.ports;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+public interface PartitionLeaseStore {
+    List<PartitionLease> findAll();
+
+    // Prend ou renouvelle le bail de façon atomique : réussit si la partition est libre,
+    // expirée à now ou déjà détenue par ownerId
+    boolean tryAcquire(int partition, String ownerId, Instant now, Instant expiresAt);
+
+    // Sans effet si le bail appartient à une autre instance
+    void release(int partition, String ownerId);
+
+    // Présence des instances, y compris celles qui ne détiennent encore aucune partition
+    void registerInstance(String instanceId, Instant expiresAt);
+
+    Set<String> findLiveInstances(Instant now);
+
+    void unregisterInstance(String instanceId);
+}
@@ -0,0 +1,22 @@
+package com.transfer.ports;
+
+import com.transfer.domain.RecurringTransfer;
+
+import java.time.Instant;
+
+// Ajout/modification (transfer renseigné) ou retrait d'un transfert actif, avec l'instant
+// où le changement a été validé côté base
+public record RecurringTransferChange(String transferId, RecurringTransfer transfer, Instant committedAt) {
+
+    public static RecurringTransferChange upsert(RecurringTransfer transfer, Instant committedAt) {
+        return new RecurringTransferChange(transfer.getId(), transfer, committedAt);
+    }
+
+    public static RecurringTransferChange removal(String transferId, Instant committedAt) {
+        return new RecurringTransferChange(transferId, null, committedAt);
+    }
+
+    public boolean isRemoval() {
+        return transfer == null;
+    }
+}
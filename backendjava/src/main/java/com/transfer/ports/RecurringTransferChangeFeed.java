@@ -0,0 +1,21 @@
+package com.transfer.ports;
+
+import java.util.List;
+
+// Flux des changements des transferts actifs : un instantané complet à l'abonnement,
+// puis uniquement les deltas
+public interface RecurringTransferChangeFeed {
+    Subscription subscribe(Listener listener);
+
+    interface Listener {
+        // initial : la liste contient tout l'ensemble actif et remplace l'état local
+        void onChanges(List<RecurringTransferChange> changes, boolean initial);
+
+        // L'abonnement est terminé : il faut se réabonner pour recevoir un nouvel instantané
+        void onError(Throwable error);
+    }
+
+    interface Subscription {
+        void cancel();
+    }
+}
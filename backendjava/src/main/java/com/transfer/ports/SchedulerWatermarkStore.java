@@ -0,0 +1,21 @@
+package com.transfer.ports;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+// Filigrane du scheduler : toutes les échéances antérieures ont été traitées (par un tick ou un rattrapage).
+// Un filigrane commun sans partitionnement, un par partition sinon : chaque partition avance au rythme
+// de l'instance qui la détient.
+public interface SchedulerWatermarkStore {
+    // Vide au premier démarrage
+    Optional<Instant> load();
+
+    void save(Instant watermark);
+
+    // Une partition sans filigrane propre est absente du résultat
+    Map<Integer, Instant> loadPartitions(Collection<Integer> partitions);
+
+    void savePartitions(Collection<Integer> partitions, Instant watermark);
+}
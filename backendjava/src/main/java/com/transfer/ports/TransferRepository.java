@@ -1,20 +1,43 @@
 package com.transfer.ports;
 
+import com.transfer.domain.ExecutionOutcome;
 import com.transfer.domain.RecurringTransfer;
+import com.transfer.domain.ScheduleAdvance;
 import com.transfer.domain.TransactionStatus;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Repository
 public interface TransferRepository {
-    List<RecurringTransfer> findActiveTransfers();
-    void updateLastExecuted(String transferId, LocalDateTime executionDate);
+    // Parcours page par page : la mémoire reste bornée par la taille de page, quel que soit le nombre de transferts
+    void forEachActiveTransfer(Consumer<RecurringTransfer> consumer);
+    List<RecurringTransfer> findTransfersDueBetween(Instant from, Instant to);
+    void updateLastExecuted(String transferId, LocalDateTime executionDate, LocalDateTime nextExecution);
+    void updateNextExecution(String transferId, LocalDateTime nextExecution);
     void createNotification(String userId, String title, String message);
-    void executeTransfer(RecurringTransfer transfer);
+    // L'échéance avance avec le résultat : dans la transaction du débit, ou avec l'écriture de l'échec
+    void executeTransfer(RecurringTransfer transfer, ScheduleAdvance advance);
+    // Transferts d'un même expéditeur exécutés dans une seule transaction ; advances indexé par transfert
+    void executeTransferBatch(List<RecurringTransfer> transfers, Map<String, ScheduleAdvance> advances);
     void createFailedTransaction(RecurringTransfer transfer, String toUserId, String reason);
+    // Même motif pour tous : écritures groupées en lots ; recipients associe numéro et utilisateur
+    void createFailedTransactions(List<RecurringTransfer> transfers, Map<String, String> recipients,
+                                  Map<String, ScheduleAdvance> advances, String reason);
+    // Écrit les mises à jour d'échéance encore en attente, appelé en fin de tick ;
+    // faux si certaines n'ont pas été confirmées
+    boolean flushScheduleUpdates();
     void updateTransactionStatus(String transferId, TransactionStatus status);
-    void retryFailedTransfer(String transferId);
+    // Relance d'une échéance échouée, débit et registre dans une même transaction
+    ExecutionOutcome retryFailedTransfer(TransferRetry retry);
     String findUserIdByPhone(String phone);
+    // Seuls les numéros associés à un utilisateur figurent dans le résultat
+    Map<String, String> findUserIdsByPhones(Collection<String> phones);
+    // Soldes lus en une fois ; un utilisateur absent ne figure pas dans le résultat
+    Map<String, Double> findBalances(Collection<String> userIds);
 } 
\ No newline at end of file
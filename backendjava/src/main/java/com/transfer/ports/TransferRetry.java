@@ -0,0 +1,43 @@
+package com.transfer.ports;
+
+import com.transfer.domain.RecurringTransfer;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+// Relance en attente d'une échéance échouée, identifiée par sa transaction (occurrenceId).
+// retryCount compte les tentatives déjà faites ; toUserId est null si le destinataire était inconnu.
+public record TransferRetry(
+    String transactionId,
+    String transferId,
+    String fromUserId,
+    String toUserId,
+    String toPhone,
+    double amount,
+    Instant scheduledAt,
+    int retryCount,
+    Instant nextAttemptAt,
+    String lastFailureReason
+) {
+
+    public static TransferRetry firstAttempt(RecurringTransfer transfer, String toUserId, String reason,
+                                             Instant nextAttemptAt) {
+        return new TransferRetry(
+            transfer.occurrenceId(),
+            transfer.getId(),
+            transfer.getFromUserId(),
+            toUserId,
+            transfer.getToPhone(),
+            transfer.getAmount(),
+            transfer.getNextExecution() != null ? transfer.getNextExecution().atZone(ZoneId.systemDefault()).toInstant() : null,
+            0,
+            nextAttemptAt,
+            reason
+        );
+    }
+
+    public TransferRetry withAttempt(int attempts, Instant attemptAt, String reason) {
+        return new TransferRetry(transactionId, transferId, fromUserId, toUserId, toPhone, amount, scheduledAt,
+            attempts, attemptAt, reason);
+    }
+}
@@ -0,0 +1,14 @@
+package com.transfer.ports;
+
+import java.time.Instant;
+import java.util.List;
+
+// File durable des relances, ordonnée par date de prochaine tentative
+public interface TransferRetryQueue {
+    void enqueue(TransferRetry retry);
+    List<TransferRetry> findDue(Instant now, int limit);
+    void reschedule(String transactionId, int retryCount, Instant nextAttemptAt, String reason);
+    // Avance la prochaine tentative à now ; false si aucune relance n'est en attente
+    boolean expedite(String transactionId, Instant now);
+    void remove(String transactionId);
+}
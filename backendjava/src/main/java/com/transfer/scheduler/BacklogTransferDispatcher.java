@@ -0,0 +1,163 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.RecurringTransfer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// Découple la découverte des échéances de leur exécution : le tick enfile dans une file bornée et
+// rend la main aussitôt, un pool à vol de tâches la vide d'un tick à l'autre. Une échéance déjà
+// en file n'est pas enfilée une seconde fois, et les lots d'un même expéditeur s'exécutent l'un
+// après l'autre sans qu'un thread du pool attende un verrou.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transfer.scheduler.execution-mode", havingValue = "backlog")
+public class BacklogTransferDispatcher implements TransferDispatcher {
+    private final ForkJoinPool pool;
+    private final int capacity;
+    private final Duration drainTimeout;
+    private final AtomicInteger pending = new AtomicInteger();
+    // Échéances en file ou en cours (occurrenceId -> échéance prévue)
+    private final Map<String, LocalDateTime> queued = new ConcurrentHashMap<>();
+    // Lots en attente par expéditeur : l'entrée existe tant qu'une tâche vide la file de l'expéditeur
+    private final Map<String, ArrayDeque<SenderBatch>> senders = new ConcurrentHashMap<>();
+    private final Counter duplicates;
+    private final Counter overflow;
+
+    public BacklogTransferDispatcher(
+        MeterRegistry meterRegistry,
+        @Value("${transfer.scheduler.backlog.capacity:20000}") int capacity,
+        @Value("${transfer.scheduler.backlog.parallelism:32}") int parallelism,
+        @Value("${transfer.scheduler.backlog.drain-timeout:50s}") Duration drainTimeout
+    ) {
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("transfer-backlog-" + thread.getPoolIndex());
+            return thread;
+        }, null, true);
+        this.capacity = capacity;
+        this.drainTimeout = drainTimeout;
+        this.duplicates = meterRegistry.counter("transfer.scheduler.backlog.duplicates");
+        this.overflow = meterRegistry.counter("transfer.scheduler.backlog.overflow");
+    }
+
+    @Override
+    public DispatchReport dispatch(List<RecurringTransfer> transfers, Consumer<List<RecurringTransfer>> senderTask) {
+        long start = System.nanoTime();
+        List<RecurringTransfer> accepted = new ArrayList<>(transfers.size());
+        List<RecurringTransfer> rejected = new ArrayList<>();
+        for (RecurringTransfer transfer : transfers) {
+            String occurrenceId = transfer.occurrenceId();
+            // Déjà en file depuis un tick précédent : l'exécution en cours s'en charge
+            if (queued.putIfAbsent(occurrenceId, transfer.getNextExecution()) != null) {
+                duplicates.increment();
+                continue;
+            }
+            if (pending.incrementAndGet() > capacity) {
+                pending.decrementAndGet();
+                queued.remove(occurrenceId);
+                rejected.add(transfer);
+                continue;
+            }
+            accepted.add(transfer);
+        }
+
+        for (List<RecurringTransfer> senderTransfers : TransferDispatcher.groupBySender(accepted)) {
+            enqueue(new SenderBatch(
+                senderTransfers,
+                senderTransfers.stream().map(RecurringTransfer::occurrenceId).toList(),
+                senderTask
+            ));
+        }
+        if (!rejected.isEmpty()) {
+            overflow.increment(rejected.size());
+            log.warn("File d'exécution pleine ({} transferts), {} transferts renvoyés au tick suivant",
+                capacity, rejected.size());
+        }
+        return new DispatchReport(accepted.size(), pending.get(), Duration.ofNanos(System.nanoTime() - start), rejected);
+    }
+
+    @Override
+    public int backlog() {
+        return pending.get();
+    }
+
+    @Override
+    public Optional<LocalDateTime> oldestPending() {
+        return queued.values().stream().min(LocalDateTime::compareTo);
+    }
+
+    private void enqueue(SenderBatch batch) {
+        String sender = batch.transfers().get(0).getFromUserId();
+        AtomicBoolean idle = new AtomicBoolean();
+        senders.compute(sender, (key, batches) -> {
+            if (batches == null) {
+                batches = new ArrayDeque<>();
+                idle.set(true);
+            }
+            batches.add(batch);
+            return batches;
+        });
+        // Une seule tâche par expéditeur : les lots suivants attendent dans sa file
+        if (idle.get()) {
+            pool.execute(() -> drain(sender));
+        }
+    }
+
+    private void drain(String sender) {
+        SenderBatch batch;
+        while ((batch = next(sender)) != null) {
+            try {
+                batch.task().accept(batch.transfers());
+            } catch (Exception e) {
+                log.error("Erreur inattendue dans un lot de transferts de {}: {}", sender, e.getMessage());
+            } finally {
+                batch.occurrenceIds().forEach(queued::remove);
+                pending.addAndGet(-batch.transfers().size());
+            }
+        }
+    }
+
+    // Lot suivant de l'expéditeur ; file vide : l'expéditeur est libéré, le prochain lot relancera une tâche
+    private SenderBatch next(String sender) {
+        AtomicReference<SenderBatch> next = new AtomicReference<>();
+        senders.computeIfPresent(sender, (key, batches) -> {
+            next.set(batches.poll());
+            return next.get() == null ? null : batches;
+        });
+        return next.get();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        pool.shutdown();
+        if (!pool.awaitTermination(drainTimeout.toSeconds(), TimeUnit.SECONDS)) {
+            log.warn("Arrêt de la file d'exécution avec {} transferts encore en attente", pending.get());
+        }
+    }
+
+    // occurrenceIds relevés à l'enfilement : l'exécution avance l'échéance des transferts
+    private record SenderBatch(List<RecurringTransfer> transfers, List<String> occurrenceIds,
+                               Consumer<List<RecurringTransfer>> task) {
+    }
+}
@@ -0,0 +1,349 @@
+package com.transfer.scheduler;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.transfer.application.FirestoreCallGuard;
+import com.transfer.application.FirestoreUnavailableException;
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.ports.SchedulerWatermarkStore;
+import com.transfer.ports.TransferRepository;
+import com.transfer.service.TransferService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Rattrape les échéances manquées : tick en retard (GC, Firestore lent, tick précédent trop long)
+// ou arrêt de l'instance. Le filigrane persisté marque la fin du dernier tick terminé, un par
+// partition avec le partitionnement ; tout écart avec la minute courante est rattrapé en
+// arrière-plan, à débit plafonné pour ne pas saturer Firestore, et sur une fenêtre bornée.
+@Slf4j
+@Component
+public class CatchUpExecutor {
+    private static final Comparator<RecurringTransfer> BY_NEXT_EXECUTION =
+        Comparator.comparing(RecurringTransfer::getNextExecution);
+    private static final long CIRCUIT_POLL_MILLIS = 1000;
+
+    private final TransferRepository transferRepository;
+    private final TransferService transferService;
+    private final DueTransferSource dueTransferSource;
+    private final PartitionManager partitionManager;
+    private final SchedulerWatermarkStore watermarkStore;
+    private final FirestoreCallGuard firestoreCallGuard;
+    private final TransferDispatcher transferDispatcher;
+    private final boolean enabled;
+    private final Duration maxWindow;
+    private final RateLimiter rateLimiter;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+        runnable -> Thread.ofPlatform().name("transfer-catch-up").unstarted(runnable));
+    // Plages soumises et pas encore rattrapées : le filigrane persisté ne dépasse pas leur début
+    private final Queue<CatchUpRange> pendingRanges = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final Counter executed;
+    // Fin du dernier tick terminé
+    private volatile LocalDateTime tickWatermark;
+    // Sans partitionnement : filigrane commun lu au premier tick
+    private volatile boolean globalWatermarkLoaded;
+    // Avec partitionnement : partitions détenues dont le filigrane a été lu, et qu'elle seule avance
+    private volatile Set<Integer> trackedPartitions = Set.of();
+    // Fin de la fenêtre du dernier tick commencé : ce tick a déjà lu ses échéances
+    private volatile LocalDateTime currentWindowEnd;
+    // Plus ancienne échéance reportée par le scheduler (circuit ouvert, file pleine), null si aucune
+    private volatile LocalDateTime oldestDeferred;
+
+    public CatchUpExecutor(
+        TransferRepository transferRepository,
+        TransferService transferService,
+        DueTransferSource dueTransferSource,
+        PartitionManager partitionManager,
+        SchedulerWatermarkStore watermarkStore,
+        FirestoreCallGuard firestoreCallGuard,
+        TransferDispatcher transferDispatcher,
+        MeterRegistry meterRegistry,
+        @Value("${transfer.scheduler.catch-up.enabled:true}") boolean enabled,
+        @Value("${transfer.scheduler.catch-up.max-rate:20}") double maxRate,
+        @Value("${transfer.scheduler.catch-up.max-window:24h}") Duration maxWindow
+    ) {
+        this.transferRepository = transferRepository;
+        this.transferService = transferService;
+        this.dueTransferSource = dueTransferSource;
+        this.partitionManager = partitionManager;
+        this.watermarkStore = watermarkStore;
+        this.firestoreCallGuard = firestoreCallGuard;
+        this.transferDispatcher = transferDispatcher;
+        this.enabled = enabled;
+        this.maxWindow = maxWindow;
+        this.rateLimiter = RateLimiter.create(maxRate);
+        this.executed = meterRegistry.counter("transfer.catchup.executed");
+        Gauge.builder("transfer.catchup.backlog", backlog, AtomicInteger::get)
+            .description("Échéances manquées restant à rattraper")
+            .register(meterRegistry);
+    }
+
+    // Appelé au début de chaque tick : un écart avec le dernier tick terminé est rattrapé, de même
+    // que l'écart de chaque partition reprise depuis son propre filigrane (instance arrêtée ou
+    // disparue dont les baux viennent d'expirer)
+    public void tickStarted(LocalDateTime windowStart) {
+        if (!enabled) {
+            return;
+        }
+        currentWindowEnd = windowStart.plusMinutes(1);
+        // Début de l'écart -> partitions concernées (null : toutes)
+        Map<LocalDateTime, Set<Integer>> gaps = new TreeMap<>();
+        if (partitionManager.isEnabled()) {
+            collectPartitionGaps(windowStart, gaps);
+        } else {
+            if (!globalWatermarkLoaded) {
+                loadGlobalWatermark();
+            }
+            LocalDateTime watermark = tickWatermark;
+            if (watermark != null && watermark.isBefore(windowStart)) {
+                gaps.put(watermark, null);
+            }
+        }
+
+        LocalDateTime horizon = windowStart.minus(maxWindow);
+        gaps.forEach((watermark, partitions) -> {
+            LocalDateTime from = watermark;
+            if (watermark.isBefore(horizon)) {
+                log.warn("Échéances entre {} et {} hors de la fenêtre de rattrapage, non rattrapées", watermark, horizon);
+                from = horizon;
+            }
+            submit(new CatchUpRange(from, windowStart, partitions));
+        });
+    }
+
+    public void tickCompleted(LocalDateTime windowEnd, Optional<LocalDateTime> oldestDeferred) {
+        if (!enabled) {
+            return;
+        }
+        this.oldestDeferred = oldestDeferred.orElse(null);
+        tickWatermark = windowEnd;
+        persistWatermark();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void collectPartitionGaps(LocalDateTime windowStart, Map<LocalDateTime, Set<Integer>> gaps) {
+        Set<Integer> tracked = trackedPartitions;
+        Set<Integer> kept = new TreeSet<>();
+        Set<Integer> acquired = new TreeSet<>();
+        for (Integer partition : partitionManager.ownedPartitionIds()) {
+            (tracked.contains(partition) ? kept : acquired).add(partition);
+        }
+
+        LocalDateTime watermark = tickWatermark;
+        if (watermark != null && watermark.isBefore(windowStart) && !kept.isEmpty()) {
+            gaps.put(watermark, kept);
+        }
+        Set<Integer> nowTracked = new HashSet<>(kept);
+        if (!acquired.isEmpty()) {
+            try {
+                loadPartitionWatermarks(acquired).forEach((partition, from) -> {
+                    if (from.isBefore(windowStart)) {
+                        gaps.computeIfAbsent(from, key -> new TreeSet<>()).add(partition);
+                    }
+                });
+                nowTracked.addAll(acquired);
+                log.info("Filigranes chargés pour les partitions {}", acquired);
+            } catch (Exception e) {
+                // Partitions non suivies : leur filigrane n'est pas écrasé, nouvel essai au tick suivant
+                log.error("Filigranes des partitions {} illisibles: {}", acquired, e.getMessage());
+            }
+        }
+        // Une partition perdue n'est plus suivie : son nouveau détenteur avance son filigrane
+        trackedPartitions = Set.copyOf(nowTracked);
+    }
+
+    // Une partition sans filigrane propre part du filigrane commun (instances non partitionnées avant)
+    private Map<Integer, LocalDateTime> loadPartitionWatermarks(Set<Integer> partitions) {
+        Map<Integer, Instant> own = watermarkStore.loadPartitions(partitions);
+        Instant common = own.size() < partitions.size() ? watermarkStore.load().orElse(null) : null;
+        Map<Integer, LocalDateTime> watermarks = new HashMap<>();
+        for (Integer partition : partitions) {
+            Instant watermark = own.getOrDefault(partition, common);
+            if (watermark != null) {
+                watermarks.put(partition, LocalDateTime.ofInstant(watermark, ZoneId.systemDefault()));
+            }
+        }
+        return watermarks;
+    }
+
+    private void loadGlobalWatermark() {
+        try {
+            tickWatermark = watermarkStore.load()
+                .map(watermark -> LocalDateTime.ofInstant(watermark, ZoneId.systemDefault()))
+                .orElse(null);
+            globalWatermarkLoaded = true;
+            log.info("Filigrane du scheduler chargé : {}", tickWatermark);
+        } catch (Exception e) {
+            // Filigrane persisté laissé intact, nouvel essai au tick suivant
+            log.error("Filigrane du scheduler illisible, pas de rattrapage pour ce tick: {}", e.getMessage());
+        }
+    }
+
+    private void submit(CatchUpRange range) {
+        log.info("Rattrapage des échéances manquées entre {} et {}{}", range.from(), range.to(),
+            range.partitions() == null ? "" : " pour les partitions " + range.partitions());
+        pendingRanges.add(range);
+        executor.execute(() -> {
+            try {
+                catchUp(range);
+                pendingRanges.remove(range);
+                persistWatermark();
+            } catch (Exception e) {
+                // La plage reste en attente : le filigrane persisté la couvre, elle sera reprise au redémarrage
+                log.error("Rattrapage interrompu entre {} et {}: {}", range.from(), range.to(), e.getMessage());
+            }
+        });
+    }
+
+    // Les échéances sont exécutées dans l'ordre chronologique ; un transfert manqué plusieurs fois
+    // est remis dans la file avec son échéance suivante
+    private void catchUp(CatchUpRange range) throws InterruptedException {
+        LocalDateTime from = range.from();
+        LocalDateTime to = range.to();
+        List<RecurringTransfer> missed = transferRepository.findTransfersDueBetween(
+            from.atZone(ZoneId.systemDefault()).toInstant(),
+            to.atZone(ZoneId.systemDefault()).toInstant()
+        );
+        PriorityQueue<RecurringTransfer> queue = new PriorityQueue<>(Math.max(1, missed.size()), BY_NEXT_EXECUTION);
+        for (RecurringTransfer transfer : missed) {
+            if (transfer.getNextExecution() != null && partitionManager.owns(transfer)
+                && range.covers(partitionManager.partitionOf(transfer))) {
+                queue.add(transfer);
+            }
+        }
+        backlog.addAndGet(queue.size());
+
+        long start = System.nanoTime();
+        int count = 0;
+        try {
+            while (!queue.isEmpty()) {
+                // Firestore indisponible : le rattrapage attend la fermeture du circuit au lieu de
+                // transformer chaque échéance restante en échec
+                if (firestoreCallGuard.isOpen()) {
+                    Thread.sleep(CIRCUIT_POLL_MILLIS);
+                    continue;
+                }
+                RecurringTransfer transfer = queue.poll();
+                rateLimiter.acquire();
+                try {
+                    transferService.executeMissedOccurrence(transfer);
+                    executed.increment();
+                    count++;
+                } catch (FirestoreUnavailableException e) {
+                    queue.add(transfer);
+                    continue;
+                } catch (Exception e) {
+                    log.error("Erreur lors du rattrapage du transfert {}: {}", transfer.getId(), e.getMessage());
+                    backlog.decrementAndGet();
+                    continue;
+                }
+
+                // Jusqu'à la minute du tick en cours : il a lu ses échéances avant que celle-ci ne soit
+                // avancée. Une échéance traitée des deux côtés est écartée par le registre d'idempotence.
+                LocalDateTime next = transfer.getNextExecution();
+                if (next != null && next.isBefore(currentWindowEnd)) {
+                    queue.add(transfer);
+                } else {
+                    backlog.decrementAndGet();
+                    dueTransferSource.reschedule(transfer);
+                }
+            }
+        } finally {
+            backlog.addAndGet(-queue.size());
+        }
+        log.info("Rattrapage terminé entre {} et {} : {} échéances exécutées en {} ms", from, to, count,
+            Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    // Appelé par le tick et par le rattrapage
+    private synchronized void persistWatermark() {
+        LocalDateTime watermark = tickWatermark;
+        if (watermark == null) {
+            return;
+        }
+        // Transferts découverts mais encore en file : repris par le rattrapage après un arrêt
+        LocalDateTime oldestQueued = transferDispatcher.oldestPending().orElse(null);
+        if (oldestQueued != null && oldestQueued.isBefore(watermark)) {
+            watermark = oldestQueued;
+        }
+        // Transferts reportés, tenus en mémoire seulement : repris par le rattrapage après un arrêt
+        LocalDateTime deferredFrom = oldestDeferred;
+        if (deferredFrom != null && deferredFrom.isBefore(watermark)) {
+            watermark = deferredFrom;
+        }
+
+        try {
+            if (!partitionManager.isEnabled()) {
+                if (globalWatermarkLoaded) {
+                    watermarkStore.save(toInstant(oldestPendingFrom(watermark, null)));
+                }
+                return;
+            }
+            // Chaque partition suivie et encore détenue s'arrête à sa plus ancienne plage en attente
+            Set<Integer> owned = partitionManager.ownedPartitionIds();
+            Map<LocalDateTime, List<Integer>> byWatermark = new HashMap<>();
+            for (Integer partition : trackedPartitions) {
+                if (owned.contains(partition)) {
+                    byWatermark.computeIfAbsent(oldestPendingFrom(watermark, partition), key -> new ArrayList<>())
+                        .add(partition);
+                }
+            }
+            for (Map.Entry<LocalDateTime, List<Integer>> entry : byWatermark.entrySet()) {
+                watermarkStore.savePartitions(entry.getValue(), toInstant(entry.getKey()));
+            }
+        } catch (Exception e) {
+            log.error("Impossible d'enregistrer le filigrane du scheduler: {}", e.getMessage());
+        }
+    }
+
+    // partition null : toutes les plages
+    private LocalDateTime oldestPendingFrom(LocalDateTime watermark, Integer partition) {
+        LocalDateTime oldest = watermark;
+        for (CatchUpRange range : pendingRanges) {
+            if ((partition == null || range.covers(partition)) && range.from().isBefore(oldest)) {
+                oldest = range.from();
+            }
+        }
+        return oldest;
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    // Plage à rattraper ; partitions null : toutes
+    private record CatchUpRange(LocalDateTime from, LocalDateTime to, Set<Integer> partitions) {
+        boolean covers(int partition) {
+            return partitions == null || partitions.contains(partition);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.ports.TransferRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static com.transfer.domain.OccurrenceCalculator.fromEpochMinute;
+import static com.transfer.domain.OccurrenceCalculator.toEpochMinute;
+
+// Même rôle que TimingWheelDueTransferSource, mais l'ensemble actif est tenu en colonnes
+// primitives (CompactTransferSet) : deux à trois fois moins de mémoire résidente pour un million de
+// transferts, seuls les transferts échus d'un tick sont matérialisés
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transfer.scheduler.source", havingValue = "compact")
+public class CompactDueTransferSource implements DueTransferSource {
+    private final TransferRepository transferRepository;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private volatile CompactTransferSet active;
+
+    public CompactDueTransferSource(TransferRepository transferRepository, Clock clock, MeterRegistry meterRegistry) {
+        this.transferRepository = transferRepository;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("transfer.scheduler.active", this, source -> source.active == null ? 0 : source.active.size())
+            .description("Transferts actifs tenus en mémoire")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void refresh() {
+        // Reprend au curseur courant pour ne pas rejouer les minutes déjà traitées
+        CompactTransferSet current = active;
+        long cursor = current != null
+            ? current.getCursor()
+            : toEpochMinute(LocalDateTime.now(clock).truncatedTo(ChronoUnit.MINUTES));
+        LocalDateTime now = fromEpochMinute(cursor);
+
+        // Dimensionné d'après le chargement précédent : les transferts arrivent page par page
+        CompactTransferSet loaded = new CompactTransferSet(cursor, current != null ? current.size() : 1024);
+        transferRepository.forEachActiveTransfer(transfer -> {
+            LocalDateTime next = transfer.getNextExecution();
+            if (next == null || next.isBefore(now)) {
+                // L'échéance armée devient celle du transfert : elle identifie l'occurrence exécutée
+                transfer.setNextExecution(transfer.computeNextExecution(now));
+            }
+            loaded.schedule(transfer);
+        });
+
+        active = loaded;
+        log.info("Ensemble compact chargé avec {} transferts actifs", loaded.size());
+    }
+
+    @Override
+    public List<RecurringTransfer> findDueTransfers(LocalDateTime windowStart, LocalDateTime windowEnd) {
+        if (active == null) {
+            refresh();
+        }
+        return active.advanceTo(toEpochMinute(windowEnd) - 1);
+    }
+
+    @Override
+    public void reschedule(RecurringTransfer transfer) {
+        CompactTransferSet target = active;
+        if (target == null) {
+            return;
+        }
+
+        // Ne jamais réarmer dans le passé, sinon un échec serait rejoué à chaque tick
+        if (transfer.getNextExecution() != null && transfer.nextExecutionMinute() < target.getCursor()) {
+            transfer.setNextExecution(transfer.computeNextExecution(fromEpochMinute(target.getCursor())));
+        }
+        target.schedule(transfer);
+    }
+}
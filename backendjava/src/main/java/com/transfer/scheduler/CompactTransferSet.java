@@ -0,0 +1,496 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.OccurrenceCalculator;
+import com.transfer.domain.RecurringFrequency;
+import com.transfer.domain.RecurringTransfer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Transferts actifs rangés en colonnes primitives, un emplacement (int) par transfert : environ
+// 140 octets retenus par transfert contre 370 pour un RecurringTransfer avec ses LocalDateTime et
+// ses String dans la roue temporelle (ActiveSetFootprintBenchmark, un million de transferts). Les identifiants sont stockés en UTF-8 dans un seul tableau d'octets ; expéditeurs,
+// téléphones et descriptions sont encodés par dictionnaire. Les échéances sont chaînées par minute
+// epoch dans des listes intrusives d'entiers : avancer d'une minute ne parcourt que les transferts
+// échus à cette minute, pas ceux des autres jours à la même heure. Un RecurringTransfer n'est
+// matérialisé que pour un transfert échu.
+public class CompactTransferSet {
+    private static final int NONE = -1;
+    private static final int EMPTY = -1;
+    private static final int TOMBSTONE = -2;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final RecurringFrequency[] FREQUENCIES = RecurringFrequency.values();
+
+    // Colonnes indexées par emplacement
+    private byte[] idBytes = new byte[4096];
+    private int idBytesUsed;
+    private int[] idOffsets;
+    private int[] idLengths;
+    private int[] idHashes;
+    private int[] fromUserIds;
+    private int[] toPhones;
+    private int[] descriptions;
+    private double[] amounts;
+    private byte[] frequencies;
+    private short[] executionMinutes;
+    // Dates de l'heure locale en secondes (décalage UTC fixe) : aller-retour exact avec LocalDateTime
+    private long[] startSeconds;
+    private long[] endSeconds;
+    private long[] lastExecutedSeconds;
+    // Échéance en minutes epoch (fuseau du serveur), comme OccurrenceCalculator
+    private long[] nextMinutes;
+    private int[] bucketPrevious;
+    private int[] bucketNext;
+
+    private final MinuteBuckets buckets = new MinuteBuckets();
+    // Échéances déjà passées à l'armement : échues à la prochaine avance
+    private int overdueHead = NONE;
+    private final Dictionary users = new Dictionary();
+    private final Dictionary phones = new Dictionary();
+    private final Dictionary descriptionTexts = new Dictionary();
+
+    // Index des identifiants en adressage ouvert : EMPTY, TOMBSTONE ou emplacement
+    private int[] table;
+    private int tableOccupied;
+
+    private int highWater;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int size;
+    // Prochaine minute à traiter
+    private long cursor;
+
+    public CompactTransferSet(long startMinute, int expectedSize) {
+        this.cursor = startMinute;
+        int capacity = Math.max(16, expectedSize);
+        allocateColumns(capacity);
+        table = new int[tableSizeFor(capacity)];
+        Arrays.fill(table, EMPTY);
+    }
+
+    // Ajoute ou remplace le transfert ; sans échéance ou inactif, il est retiré
+    public synchronized void schedule(RecurringTransfer transfer) {
+        if (!transfer.isActive() || transfer.getNextExecution() == null) {
+            remove(transfer.getId());
+            return;
+        }
+
+        byte[] id = transfer.getId().getBytes(StandardCharsets.UTF_8);
+        int hash = transfer.getId().hashCode();
+        int slot = find(id, hash);
+        if (slot == NONE) {
+            slot = allocateSlot();
+            idOffsets[slot] = appendId(id);
+            idLengths[slot] = id.length;
+            idHashes[slot] = hash;
+            insertIndex(slot, hash);
+            size++;
+        } else {
+            unlink(slot);
+        }
+
+        fromUserIds[slot] = users.encode(transfer.getFromUserId());
+        toPhones[slot] = phones.encode(transfer.getToPhone());
+        descriptions[slot] = descriptionTexts.encode(transfer.getDescription());
+        amounts[slot] = transfer.getAmount();
+        frequencies[slot] = (byte) transfer.getFrequency().ordinal();
+        LocalTime executionTime = transfer.getExecutionTime();
+        executionMinutes[slot] = (short) (executionTime.getHour() * 60 + executionTime.getMinute());
+        startSeconds[slot] = toSeconds(transfer.getStartDate());
+        endSeconds[slot] = toSeconds(transfer.getEndDate());
+        lastExecutedSeconds[slot] = toSeconds(transfer.getLastExecuted());
+        nextMinutes[slot] = transfer.nextExecutionMinute();
+        link(slot);
+    }
+
+    public synchronized boolean remove(String transferId) {
+        byte[] id = transferId.getBytes(StandardCharsets.UTF_8);
+        int hash = transferId.hashCode();
+        int position = position(id, hash);
+        if (position == NONE) {
+            return false;
+        }
+        int slot = table[position];
+        table[position] = TOMBSTONE;
+        unlink(slot);
+        releaseSlot(slot);
+        size--;
+        return true;
+    }
+
+    // Avance le curseur jusqu'à la minute incluse et matérialise les transferts échus, qui sortent
+    // de leur chaîne jusqu'au prochain schedule
+    public synchronized List<RecurringTransfer> advanceTo(long minute) {
+        List<RecurringTransfer> due = new ArrayList<>();
+        if (minute < cursor) {
+            return due;
+        }
+        int overdue = overdueHead;
+        overdueHead = NONE;
+        drain(overdue, due);
+        if (minute - cursor < buckets.size()) {
+            for (long current = cursor; current <= minute; current++) {
+                drain(buckets.remove(current), due);
+            }
+        } else {
+            // Écart plus long que le nombre de minutes occupées : seules celles-ci sont parcourues
+            for (long occupied : buckets.minutesUpTo(minute)) {
+                drain(buckets.remove(occupied), due);
+            }
+        }
+        cursor = minute + 1;
+        return due;
+    }
+
+    // La chaîne entière est échue : ses emplacements en sortent jusqu'au prochain schedule
+    private void drain(int head, List<RecurringTransfer> due) {
+        for (int slot = head; slot != NONE; ) {
+            int next = bucketNext[slot];
+            bucketPrevious[slot] = NONE;
+            bucketNext[slot] = NONE;
+            due.add(materialize(slot));
+            slot = next;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getCursor() {
+        return cursor;
+    }
+
+    private RecurringTransfer materialize(int slot) {
+        int executionMinute = executionMinutes[slot];
+        return RecurringTransfer.builder()
+            .id(new String(idBytes, idOffsets[slot], idLengths[slot], StandardCharsets.UTF_8))
+            .fromUserId(users.decode(fromUserIds[slot]))
+            .toPhone(phones.decode(toPhones[slot]))
+            .amount(amounts[slot])
+            .frequency(FREQUENCIES[frequencies[slot]])
+            .startDate(fromSeconds(startSeconds[slot]))
+            .executionTime(LocalTime.of(executionMinute / 60, executionMinute % 60))
+            .endDate(fromSeconds(endSeconds[slot]))
+            .description(descriptionTexts.decode(descriptions[slot]))
+            .lastExecuted(fromSeconds(lastExecutedSeconds[slot]))
+            .nextExecution(OccurrenceCalculator.fromEpochMinute(nextMinutes[slot]))
+            .isActive(true)
+            .build();
+    }
+
+    private void link(int slot) {
+        long minute = nextMinutes[slot];
+        boolean overdue = minute < cursor;
+        int head = overdue ? overdueHead : buckets.get(minute);
+        bucketPrevious[slot] = NONE;
+        bucketNext[slot] = head;
+        if (head != NONE) {
+            bucketPrevious[head] = slot;
+        }
+        if (overdue) {
+            overdueHead = slot;
+        } else {
+            buckets.put(minute, slot);
+        }
+    }
+
+    // Sans effet sur un emplacement déjà sorti de sa chaîne
+    private void unlink(int slot) {
+        int previous = bucketPrevious[slot];
+        int next = bucketNext[slot];
+        if (previous != NONE) {
+            bucketNext[previous] = next;
+        } else if (overdueHead == slot) {
+            overdueHead = next;
+        } else if (buckets.get(nextMinutes[slot]) == slot) {
+            buckets.put(nextMinutes[slot], next);
+        } else {
+            return;
+        }
+        if (next != NONE) {
+            bucketPrevious[next] = previous;
+        }
+        bucketPrevious[slot] = NONE;
+        bucketNext[slot] = NONE;
+    }
+
+    private int find(byte[] id, int hash) {
+        int position = position(id, hash);
+        return position == NONE ? NONE : table[position];
+    }
+
+    private int position(byte[] id, int hash) {
+        int mask = table.length - 1;
+        for (int position = spread(hash) & mask; ; position = (position + 1) & mask) {
+            int slot = table[position];
+            if (slot == EMPTY) {
+                return NONE;
+            }
+            if (slot >= 0 && idHashes[slot] == hash && idEquals(slot, id)) {
+                return position;
+            }
+        }
+    }
+
+    private void insertIndex(int slot, int hash) {
+        if ((tableOccupied + 1) * 2 > table.length) {
+            rehash();
+        }
+        int mask = table.length - 1;
+        int position = spread(hash) & mask;
+        while (table[position] >= 0) {
+            position = (position + 1) & mask;
+        }
+        if (table[position] == EMPTY) {
+            tableOccupied++;
+        }
+        table[position] = slot;
+    }
+
+    // Purge les tombes et agrandit la table si nécessaire
+    private void rehash() {
+        int[] previous = table;
+        table = new int[tableSizeFor(Math.max(size + 1, 16))];
+        Arrays.fill(table, EMPTY);
+        tableOccupied = 0;
+        int mask = table.length - 1;
+        for (int slot : previous) {
+            if (slot >= 0) {
+                int position = spread(idHashes[slot]) & mask;
+                while (table[position] != EMPTY) {
+                    position = (position + 1) & mask;
+                }
+                table[position] = slot;
+                tableOccupied++;
+            }
+        }
+    }
+
+    private boolean idEquals(int slot, byte[] id) {
+        int offset = idOffsets[slot];
+        return idLengths[slot] == id.length
+            && Arrays.equals(idBytes, offset, offset + id.length, id, 0, id.length);
+    }
+
+    // Les octets d'un identifiant retiré ne sont pas récupérés : le rechargement périodique recompacte
+    private int appendId(byte[] id) {
+        if (idBytesUsed + id.length > idBytes.length) {
+            idBytes = Arrays.copyOf(idBytes, Math.max(idBytes.length * 2, idBytesUsed + id.length));
+        }
+        int offset = idBytesUsed;
+        System.arraycopy(id, 0, idBytes, offset, id.length);
+        idBytesUsed += id.length;
+        return offset;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == nextMinutes.length) {
+            growColumns(nextMinutes.length * 2);
+        }
+        return highWater++;
+    }
+
+    private void releaseSlot(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void allocateColumns(int capacity) {
+        idOffsets = new int[capacity];
+        idLengths = new int[capacity];
+        idHashes = new int[capacity];
+        fromUserIds = new int[capacity];
+        toPhones = new int[capacity];
+        descriptions = new int[capacity];
+        amounts = new double[capacity];
+        frequencies = new byte[capacity];
+        executionMinutes = new short[capacity];
+        startSeconds = new long[capacity];
+        endSeconds = new long[capacity];
+        lastExecutedSeconds = new long[capacity];
+        nextMinutes = new long[capacity];
+        bucketPrevious = new int[capacity];
+        bucketNext = new int[capacity];
+    }
+
+    private void growColumns(int capacity) {
+        idOffsets = Arrays.copyOf(idOffsets, capacity);
+        idLengths = Arrays.copyOf(idLengths, capacity);
+        idHashes = Arrays.copyOf(idHashes, capacity);
+        fromUserIds = Arrays.copyOf(fromUserIds, capacity);
+        toPhones = Arrays.copyOf(toPhones, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        frequencies = Arrays.copyOf(frequencies, capacity);
+        executionMinutes = Arrays.copyOf(executionMinutes, capacity);
+        startSeconds = Arrays.copyOf(startSeconds, capacity);
+        endSeconds = Arrays.copyOf(endSeconds, capacity);
+        lastExecutedSeconds = Arrays.copyOf(lastExecutedSeconds, capacity);
+        nextMinutes = Arrays.copyOf(nextMinutes, capacity);
+        bucketPrevious = Arrays.copyOf(bucketPrevious, capacity);
+        bucketNext = Arrays.copyOf(bucketNext, capacity);
+    }
+
+    private static int tableSizeFor(int entries) {
+        return Integer.highestOneBit(Math.max(entries, 8) * 4 - 1);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime == null ? NO_DATE : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromSeconds(long seconds) {
+        return seconds == NO_DATE ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    // Tête de chaîne par minute epoch, en adressage ouvert sur des tableaux primitifs. Une suppression
+    // recule les entrées suivantes de la même grappe au lieu de laisser une tombe.
+    private static final class MinuteBuckets {
+        private long[] minutes = new long[64];
+        private int[] heads = newHeads(64);
+        private int size;
+
+        private int get(long minute) {
+            int position = position(minute);
+            return position == NONE ? NONE : heads[position];
+        }
+
+        // NONE retire la minute
+        private void put(long minute, int head) {
+            if (head == NONE) {
+                remove(minute);
+                return;
+            }
+            int position = position(minute);
+            if (position != NONE) {
+                heads[position] = head;
+                return;
+            }
+            if ((size + 1) * 2 > minutes.length) {
+                resize(minutes.length * 2);
+            }
+            insert(minute, head);
+            size++;
+        }
+
+        private int remove(long minute) {
+            int position = position(minute);
+            if (position == NONE) {
+                return NONE;
+            }
+            int head = heads[position];
+            int mask = minutes.length - 1;
+            int hole = position;
+            for (int current = (position + 1) & mask; heads[current] != NONE; current = (current + 1) & mask) {
+                // L'entrée recule si la case libérée se trouve entre sa case idéale et sa case actuelle
+                if (((current - index(minutes[current])) & mask) >= ((current - hole) & mask)) {
+                    minutes[hole] = minutes[current];
+                    heads[hole] = heads[current];
+                    hole = current;
+                }
+            }
+            heads[hole] = NONE;
+            size--;
+            return head;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private long[] minutesUpTo(long minute) {
+            long[] found = new long[size];
+            int count = 0;
+            for (int position = 0; position < minutes.length; position++) {
+                if (heads[position] != NONE && minutes[position] <= minute) {
+                    found[count++] = minutes[position];
+                }
+            }
+            long[] sorted = Arrays.copyOf(found, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        private int position(long minute) {
+            int mask = minutes.length - 1;
+            for (int position = index(minute); heads[position] != NONE; position = (position + 1) & mask) {
+                if (minutes[position] == minute) {
+                    return position;
+                }
+            }
+            return NONE;
+        }
+
+        private void insert(long minute, int head) {
+            int mask = minutes.length - 1;
+            int position = index(minute);
+            while (heads[position] != NONE) {
+                position = (position + 1) & mask;
+            }
+            minutes[position] = minute;
+            heads[position] = head;
+        }
+
+        private void resize(int capacity) {
+            long[] previousMinutes = minutes;
+            int[] previousHeads = heads;
+            minutes = new long[capacity];
+            heads = newHeads(capacity);
+            for (int position = 0; position < previousMinutes.length; position++) {
+                if (previousHeads[position] != NONE) {
+                    insert(previousMinutes[position], previousHeads[position]);
+                }
+            }
+        }
+
+        private int index(long minute) {
+            return (int) ((minute * 0x9E3779B97F4A7C15L) >>> 32) & (minutes.length - 1);
+        }
+
+        private static int[] newHeads(int capacity) {
+            int[] heads = new int[capacity];
+            Arrays.fill(heads, NONE);
+            return heads;
+        }
+    }
+
+    // Valeurs très répétées (un expéditeur a plusieurs transferts) stockées une seule fois
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        private int encode(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        private String decode(int code) {
+            return code == NONE ? null : values.get(code);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.RecurringTransfer;
+
+import java.time.Duration;
+import java.util.List;
+
+// rejected : transferts refusés faute de place, à reprendre à un prochain tick
+public record DispatchReport(int submitted, int backlog, Duration duration, List<RecurringTransfer> rejected) {
+    public DispatchReport(int submitted, int backlog, Duration duration) {
+        this(submitted, backlog, duration, List.of());
+    }
+}
@@ -0,0 +1,16 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.RecurringTransfer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DueTransferSource {
+    // Chargement initial puis resynchronisation périodique avec Firestore
+    void refresh();
+
+    List<RecurringTransfer> findDueTransfers(LocalDateTime windowStart, LocalDateTime windowEnd);
+
+    // Appelé après chaque tentative d'exécution, avec nextExecution à jour
+    void reschedule(RecurringTransfer transfer);
+}
@@ -0,0 +1,179 @@
+package com.transfer.scheduler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.LongFunction;
+
+// Roue temporelle hiérarchique (minutes / heures / jours) indexée par minute epoch.
+// Chaque entrée descend d'un niveau quand le curseur atteint son heure ou son jour,
+// ce qui rend le coût d'une avance proportionnel au nombre d'échéances, pas au nombre d'entrées.
+public class HierarchicalTimingWheel<T> {
+    private static final int MINUTE_SLOTS = 60;
+    private static final int HOUR_SLOTS = 24;
+    private static final int MINUTES_PER_DAY = MINUTE_SLOTS * HOUR_SLOTS;
+    // Un peu plus d'un an pour que les échéances annuelles restent dans la roue
+    private static final int DAY_SLOTS = 400;
+
+    private final List<Entry<T>>[] minuteSlots = newSlots(MINUTE_SLOTS);
+    private final List<Entry<T>>[] hourSlots = newSlots(HOUR_SLOTS);
+    private final List<Entry<T>>[] daySlots = newSlots(DAY_SLOTS);
+    private final NavigableMap<Long, List<Entry<T>>> overflow = new TreeMap<>();
+    private final List<Entry<T>> overdue = new ArrayList<>();
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+
+    // Prochaine minute à traiter
+    private long cursor;
+
+    public HierarchicalTimingWheel(long startMinute) {
+        this.cursor = startMinute;
+    }
+
+    public synchronized void schedule(String id, T payload, long fireMinute) {
+        Entry<T> previous = entries.get(id);
+        if (previous != null && previous.fireMinute == fireMinute) {
+            // Même échéance : l'entrée reste en place, seule la charge est remplacée
+            previous.payload = payload;
+            return;
+        }
+        Entry<T> entry = new Entry<>(id, payload, fireMinute);
+        entries.put(id, entry);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        place(entry);
+    }
+
+    // L'échéance est calculée depuis le curseur sous le verrou de la roue : une avance concurrente
+    // ne peut pas la rendre passée entre le calcul et l'armement. Vide : l'entrée est retirée.
+    public synchronized void scheduleFromCursor(String id, T payload, LongFunction<OptionalLong> fireMinute) {
+        OptionalLong minute = fireMinute.apply(cursor);
+        if (minute.isPresent()) {
+            schedule(id, payload, minute.getAsLong());
+        } else {
+            cancel(id);
+        }
+    }
+
+    public synchronized boolean cancel(String id) {
+        Entry<T> previous = entries.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        previous.cancelled = true;
+        return true;
+    }
+
+    // Avance le curseur jusqu'à la minute incluse et retourne les entrées échues, retirées de la roue
+    public synchronized List<T> advanceTo(long minute) {
+        List<T> due = new ArrayList<>();
+        drain(overdue, due);
+
+        while (cursor <= minute) {
+            if (cursor % MINUTES_PER_DAY == 0) {
+                cascadeDay();
+            }
+            if (cursor % MINUTE_SLOTS == 0) {
+                cascade(hourSlots, (int) ((cursor / MINUTE_SLOTS) % HOUR_SLOTS));
+            }
+            drain(minuteSlots[(int) (cursor % MINUTE_SLOTS)], due);
+            cursor++;
+        }
+        return due;
+    }
+
+    public synchronized Set<String> ids() {
+        return new HashSet<>(entries.keySet());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getCursor() {
+        return cursor;
+    }
+
+    private void place(Entry<T> entry) {
+        long fire = entry.fireMinute;
+        long fireDay = fire / MINUTES_PER_DAY;
+        long cursorDay = cursor / MINUTES_PER_DAY;
+
+        if (fire < cursor) {
+            overdue.add(entry);
+        } else if (fire / MINUTE_SLOTS == cursor / MINUTE_SLOTS) {
+            minuteSlots[(int) (fire % MINUTE_SLOTS)].add(entry);
+        } else if (fireDay == cursorDay) {
+            hourSlots[(int) ((fire / MINUTE_SLOTS) % HOUR_SLOTS)].add(entry);
+        } else if (fireDay - cursorDay < DAY_SLOTS) {
+            daySlots[(int) (fireDay % DAY_SLOTS)].add(entry);
+        } else {
+            overflow.computeIfAbsent(fire, key -> new ArrayList<>()).add(entry);
+        }
+    }
+
+    private void cascadeDay() {
+        long cursorDay = cursor / MINUTES_PER_DAY;
+        cascade(daySlots, (int) (cursorDay % DAY_SLOTS));
+
+        var reachable = overflow.headMap((cursorDay + DAY_SLOTS) * MINUTES_PER_DAY, false);
+        List<Entry<T>> promoted = new ArrayList<>();
+        reachable.values().forEach(promoted::addAll);
+        reachable.clear();
+        promoted.stream().filter(entry -> !entry.cancelled).forEach(this::place);
+    }
+
+    private void cascade(List<Entry<T>>[] slots, int index) {
+        List<Entry<T>> slot = slots[index];
+        if (slot.isEmpty()) {
+            return;
+        }
+        slots[index] = new ArrayList<>();
+        for (Entry<T> entry : slot) {
+            if (!entry.cancelled) {
+                place(entry);
+            }
+        }
+    }
+
+    private void drain(List<Entry<T>> slot, List<T> due) {
+        if (slot.isEmpty()) {
+            return;
+        }
+        for (Entry<T> entry : slot) {
+            if (!entry.cancelled) {
+                entries.remove(entry.id);
+                due.add(entry.payload);
+            }
+        }
+        slot.clear();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> List<Entry<T>>[] newSlots(int count) {
+        List<Entry<T>>[] slots = new List[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        return slots;
+    }
+
+    private static final class Entry<T> {
+        private final String id;
+        private T payload;
+        private final long fireMinute;
+        private boolean cancelled;
+
+        private Entry(String id, T payload, long fireMinute) {
+            this.id = id;
+            this.payload = payload;
+            this.fireMinute = fireMinute;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.RecurringTransfer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Échéances soumises à un dispatcher et pas encore terminées, par occurrence. L'échéance est
+// relevée à la soumission : l'exécution avance nextExecution.
+final class InFlightOccurrences {
+    private final Map<String, LocalDateTime> occurrences = new ConcurrentHashMap<>();
+
+    // Renvoie les occurrences enregistrées, à passer à remove une fois le lot terminé
+    List<String> add(List<RecurringTransfer> transfers) {
+        List<String> occurrenceIds = new ArrayList<>(transfers.size());
+        for (RecurringTransfer transfer : transfers) {
+            LocalDateTime next = transfer.getNextExecution();
+            if (next != null) {
+                String occurrenceId = transfer.occurrenceId();
+                occurrences.put(occurrenceId, next);
+                occurrenceIds.add(occurrenceId);
+            }
+        }
+        return occurrenceIds;
+    }
+
+    void remove(List<String> occurrenceIds) {
+        occurrenceIds.forEach(occurrences::remove);
+    }
+
+    Optional<LocalDateTime> oldest() {
+        return occurrences.values().stream().min(LocalDateTime::compareTo);
+    }
+}
@@ -0,0 +1,112 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.ports.SchedulerWatermarkStore;
+import com.transfer.ports.TransferRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Lit à chaque tick les transferts dont nextExecution tombe dans la fenêtre, via l'index Firestore
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "transfer.scheduler.source", havingValue = "index", matchIfMissing = true)
+public class IndexedDueTransferSource implements DueTransferSource {
+    private final TransferRepository transferRepository;
+    private final Clock clock;
+    private final SchedulerWatermarkStore watermarkStore;
+    private final PartitionManager partitionManager;
+
+    @Value("${transfer.scheduler.catch-up.enabled:true}")
+    private boolean catchUpEnabled;
+
+    @Value("${transfer.scheduler.catch-up.max-window:24h}")
+    private Duration catchUpWindow;
+
+    // Recalcule nextExecution pour les documents sans échéance ou avec une échéance dépassée
+    // (transferts créés par l'application mobile, réactivés ou manqués pendant un arrêt).
+    // Les échéances encore dans la fenêtre de rattrapage sont laissées à CatchUpExecutor, qui ne
+    // reprend que depuis le filigrane : une échéance antérieure ne serait jamais exécutée.
+    @Override
+    public void refresh() {
+        LocalDateTime from = LocalDateTime.now(clock).truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime windowStart = from.minus(catchUpWindow);
+        Optional<Instant> commonWatermark;
+        Map<Integer, Instant> partitionWatermarks;
+        try {
+            commonWatermark = catchUpEnabled ? watermarkStore.load() : Optional.empty();
+            partitionWatermarks = catchUpEnabled && partitionManager.isEnabled()
+                ? watermarkStore.loadPartitions(partitionManager.allPartitionIds())
+                : Map.of();
+        } catch (Exception e) {
+            // Sans filigrane, rien n'est laissé au rattrapage plutôt que de perdre des échéances
+            log.error("Filigrane du scheduler illisible, échéances dépassées recalculées: {}", e.getMessage());
+            commonWatermark = Optional.empty();
+            partitionWatermarks = Map.of();
+        }
+        Optional<Instant> common = commonWatermark;
+        Map<Integer, Instant> byPartition = partitionWatermarks;
+        AtomicInteger updated = new AtomicInteger();
+
+        transferRepository.forEachActiveTransfer(transfer -> {
+            LocalDateTime current = transfer.getNextExecution();
+            Instant watermark = partitionManager.isEnabled()
+                ? byPartition.getOrDefault(partitionManager.partitionOf(transfer), common.orElse(null))
+                : common.orElse(null);
+            LocalDateTime staleBefore = staleBefore(from, windowStart, watermark);
+            if (current != null && !current.isBefore(staleBefore)) {
+                return;
+            }
+
+            LocalDateTime next = transfer.computeNextExecution(from);
+            if (Objects.equals(current, next)) {
+                return;
+            }
+
+            try {
+                transferRepository.updateNextExecution(transfer.getId(), next);
+                updated.incrementAndGet();
+            } catch (Exception e) {
+                log.error("Impossible d'indexer le transfert {}: {}", transfer.getId(), e.getMessage());
+            }
+        });
+        log.info("Réindexation des échéances terminée : {} transferts mis à jour", updated.get());
+    }
+
+    // Le rattrapage couvre [filigrane, maintenant) dans la limite de sa fenêtre
+    private LocalDateTime staleBefore(LocalDateTime from, LocalDateTime windowStart, Instant watermark) {
+        if (watermark == null) {
+            return from;
+        }
+        LocalDateTime caughtUpFrom = LocalDateTime.ofInstant(watermark, ZoneId.systemDefault());
+        return caughtUpFrom.isAfter(windowStart) ? caughtUpFrom : windowStart;
+    }
+
+    @Override
+    public List<RecurringTransfer> findDueTransfers(LocalDateTime windowStart, LocalDateTime windowEnd) {
+        return transferRepository.findTransfersDueBetween(
+            windowStart.atZone(ZoneId.systemDefault()).toInstant(),
+            windowEnd.atZone(ZoneId.systemDefault()).toInstant()
+        );
+    }
+
+    @Override
+    public void reschedule(RecurringTransfer transfer) {
+        // nextExecution est déjà persisté par TransferService
+    }
+}
@@ -0,0 +1,215 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.ports.PartitionLease;
+import com.transfer.ports.PartitionLeaseStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Répartit les transferts en partitions fixes (hachage de l'expéditeur) entre les instances.
+// Chaque instance détient des baux renouvelés par heartbeat ; un bail non renouvelé expire et
+// sa partition est reprise. À chaque heartbeat, une instance vise sa part équitable
+// (partitions / instances vivantes) : elle libère son excédent quand une instance arrive
+// et reprend les partitions orphelines quand une instance disparaît.
+@Slf4j
+@Component
+public class PartitionManager {
+    private final PartitionLeaseStore leaseStore;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int partitionCount;
+    private final Duration leaseTtl;
+    private final String instanceId;
+    private final Set<Integer> allPartitions;
+    private final long heartbeatIntervalMillis;
+    // Thread dédié : sur le thread @Scheduled, un tick long (budget + vidage des échéances)
+    // dépasserait lease-ttl et laisserait expirer les baux en plein tick
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+        runnable -> Thread.ofPlatform().name("partition-heartbeat").daemon().unstarted(runnable));
+    private final MeterRegistry meterRegistry;
+    private final Counter rebalances;
+    private volatile Set<Integer> ownedPartitions = Set.of();
+    // Expiration des baux au dernier heartbeat réussi : au-delà, une autre instance peut les reprendre
+    private volatile Instant ownedUntil = Instant.EPOCH;
+
+    public PartitionManager(
+        PartitionLeaseStore leaseStore,
+        Clock clock,
+        MeterRegistry meterRegistry,
+        @Value("${transfer.scheduler.partitions.enabled:false}") boolean enabled,
+        @Value("${transfer.scheduler.partitions.count:64}") int partitionCount,
+        @Value("${transfer.scheduler.partitions.lease-ttl:30s}") Duration leaseTtl,
+        @Value("${transfer.scheduler.partitions.instance-id:}") String instanceId,
+        @Value("${transfer.scheduler.partitions.heartbeat-interval:10000}") long heartbeatIntervalMillis
+    ) {
+        this.leaseStore = leaseStore;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.partitionCount = partitionCount;
+        this.leaseTtl = leaseTtl;
+        this.instanceId = instanceId.isBlank() ? defaultInstanceId() : instanceId;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        Set<Integer> partitions = new TreeSet<>();
+        for (int partition = 0; partition < partitionCount; partition++) {
+            partitions.add(partition);
+        }
+        this.allPartitions = Set.copyOf(partitions);
+        this.meterRegistry = meterRegistry;
+        this.rebalances = meterRegistry.counter("transfer.scheduler.partitions.rebalances");
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("transfer.scheduler.partitions.owned", this, manager -> manager.ownedPartitions.size())
+            .register(meterRegistry);
+    }
+
+    // Sans partitionnement, l'instance exécute tous les transferts
+    public boolean owns(RecurringTransfer transfer) {
+        return ownsSender(transfer.getFromUserId());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Partitions dont l'instance répond actuellement ; toutes sans partitionnement
+    public Set<Integer> ownedPartitionIds() {
+        if (!enabled) {
+            return allPartitions;
+        }
+        return clock.instant().isBefore(ownedUntil) ? ownedPartitions : Set.of();
+    }
+
+    public Set<Integer> allPartitionIds() {
+        return allPartitions;
+    }
+
+    public int partitionOf(RecurringTransfer transfer) {
+        return partitionOf(transfer.getFromUserId(), partitionCount);
+    }
+
+    public boolean ownsSender(String fromUserId) {
+        if (!enabled) {
+            return true;
+        }
+        return clock.instant().isBefore(ownedUntil)
+            && ownedPartitions.contains(partitionOf(fromUserId, partitionCount));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startHeartbeats() {
+        if (!enabled) {
+            return;
+        }
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebalance();
+        } catch (Exception e) {
+            log.error("Erreur lors du heartbeat des partitions: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() throws InterruptedException {
+        heartbeats.shutdownNow();
+        heartbeats.awaitTermination(5, TimeUnit.SECONDS);
+        // Libération explicite : les autres instances reprennent sans attendre l'expiration
+        Set<Integer> owned = ownedPartitions;
+        ownedPartitions = Set.of();
+        owned.forEach(partition -> leaseStore.release(partition, instanceId));
+        if (enabled) {
+            leaseStore.unregisterInstance(instanceId);
+        }
+    }
+
+    private void rebalance() {
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(leaseTtl);
+        leaseStore.registerInstance(instanceId, expiresAt);
+
+        Set<String> liveInstances = new HashSet<>(leaseStore.findLiveInstances(now));
+        liveInstances.add(instanceId);
+        Set<Integer> taken = new HashSet<>();
+        for (PartitionLease lease : leaseStore.findAll()) {
+            if (lease.isLiveAt(now) && !instanceId.equals(lease.ownerId())) {
+                // Un détenteur de bail valide est vivant même si sa présence n'est pas encore visible
+                liveInstances.add(lease.ownerId());
+                taken.add(lease.partition());
+            }
+        }
+        int fairShare = (partitionCount + liveInstances.size() - 1) / liveInstances.size();
+
+        // Renouvellement des baux détenus ; un bail perdu (expiré puis repris) sort de l'ensemble
+        TreeSet<Integer> owned = new TreeSet<>();
+        for (int partition : ownedPartitions) {
+            if (leaseStore.tryAcquire(partition, instanceId, now, expiresAt)) {
+                owned.add(partition);
+            }
+        }
+
+        // Excédent rendu pour laisser leur part aux instances arrivées
+        while (owned.size() > fairShare) {
+            int partition = owned.pollLast();
+            leaseStore.release(partition, instanceId);
+        }
+
+        // Reprise des partitions libres ou expirées jusqu'à la part équitable
+        for (int partition = 0; partition < partitionCount && owned.size() < fairShare; partition++) {
+            if (!owned.contains(partition) && !taken.contains(partition)
+                && leaseStore.tryAcquire(partition, instanceId, now, expiresAt)) {
+                owned.add(partition);
+            }
+        }
+
+        if (!owned.equals(ownedPartitions)) {
+            rebalances.increment();
+            log.info("Partitions détenues par {} : {} sur {} ({} instances vivantes)",
+                instanceId, owned.size(), partitionCount, liveInstances.size());
+        }
+        ownedPartitions = Set.copyOf(owned);
+        ownedUntil = expiresAt;
+    }
+
+    // Hachage de l'expéditeur : tous ses transferts restent sur la même instance, sans contention
+    // entre instances sur son document users
+    static int partitionOf(String fromUserId, int partitionCount) {
+        return Math.floorMod(fromUserId.hashCode(), partitionCount);
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "instance";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,214 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.OccurrenceCalculator;
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.ports.RecurringTransferChange;
+import com.transfer.ports.RecurringTransferChangeFeed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Réplique locale des transferts actifs alimentée par le flux de changements : un chargement complet
+// à l'abonnement, puis seulement les deltas. Les échéances sont rangées dans une roue temporelle,
+// un tick ne fait donc aucune lecture Firestore.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transfer.scheduler.source", havingValue = "replica")
+public class ReplicaDueTransferSource implements DueTransferSource, RecurringTransferChangeFeed.Listener {
+    private static final long INITIAL_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private final RecurringTransferChangeFeed changeFeed;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RecurringTransfer> replica = new ConcurrentHashMap<>();
+    private final Timer lag;
+    private final Counter resyncs;
+    private volatile HierarchicalTimingWheel<RecurringTransfer> wheel;
+    private volatile RecurringTransferChangeFeed.Subscription subscription;
+    private volatile boolean synced;
+    private final ScheduledExecutorService resubscriber = Executors.newSingleThreadScheduledExecutor(
+        runnable -> Thread.ofPlatform().name("replica-resubscriber").daemon().unstarted(runnable));
+    // Accès sous le verrou de l'instance
+    private int consecutiveFailures;
+    private boolean resubscribePending;
+    private boolean stopped;
+
+    public ReplicaDueTransferSource(RecurringTransferChangeFeed changeFeed, Clock clock, MeterRegistry meterRegistry) {
+        this.changeFeed = changeFeed;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.lag = Timer.builder("transfer.replica.lag")
+            .description("Délai entre la validation d'un changement et son application à la réplique")
+            .register(meterRegistry);
+        this.resyncs = meterRegistry.counter("transfer.replica.resyncs");
+        Gauge.builder("transfer.replica.size", replica, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("transfer.replica.synced", this, source -> source.synced ? 1 : 0).register(meterRegistry);
+    }
+
+    // Appelé au démarrage puis périodiquement : ne fait rien tant que l'abonnement est vivant
+    // ou qu'un réabonnement différé est prévu
+    @Override
+    public synchronized void refresh() {
+        if (stopped || subscription != null || resubscribePending) {
+            return;
+        }
+        subscription = changeFeed.subscribe(this);
+        log.info("Abonnement aux changements des transferts actifs");
+    }
+
+    @Override
+    public List<RecurringTransfer> findDueTransfers(LocalDateTime windowStart, LocalDateTime windowEnd) {
+        HierarchicalTimingWheel<RecurringTransfer> target = wheel;
+        if (target == null) {
+            // Instantané initial pas encore reçu
+            log.warn("Réplique des transferts pas encore chargée, tick ignoré");
+            return List.of();
+        }
+        return target.advanceTo(OccurrenceCalculator.toEpochMinute(windowEnd) - 1);
+    }
+
+    @Override
+    public void reschedule(RecurringTransfer transfer) {
+        replica.computeIfPresent(transfer.getId(), (id, current) -> transfer);
+        HierarchicalTimingWheel<RecurringTransfer> target = wheel;
+        if (target != null) {
+            arm(target, transfer);
+        }
+    }
+
+    @Override
+    public void onChanges(List<RecurringTransferChange> changes, boolean initial) {
+        if (initial) {
+            rebuild(changes);
+            return;
+        }
+
+        HierarchicalTimingWheel<RecurringTransfer> target = wheel;
+        long now = clock.millis();
+        for (RecurringTransferChange change : changes) {
+            if (change.isRemoval()) {
+                replica.remove(change.transferId());
+                if (target != null) {
+                    target.cancel(change.transferId());
+                }
+            } else {
+                replica.put(change.transferId(), change.transfer());
+                if (target != null) {
+                    arm(target, change.transfer());
+                }
+            }
+            lag.record(Duration.ofMillis(Math.max(0, now - change.committedAt().toEpochMilli())));
+        }
+        log.debug("{} changements appliqués à la réplique", changes.size());
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        // L'écoute est terminée : l'instantané initial du réabonnement reconstruira la réplique
+        log.error("Écoute des transferts interrompue, resynchronisation de la réplique: {}", error.getMessage());
+        synced = false;
+        resyncs.increment();
+        scheduleResubscribe();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        stopped = true;
+        resubscriber.shutdownNow();
+        if (subscription != null) {
+            subscription.cancel();
+            subscription = null;
+        }
+    }
+
+    // Réabonnement différé pour ne pas boucler sur une erreur persistante (quota, permissions)
+    private synchronized void scheduleResubscribe() {
+        if (stopped) {
+            return;
+        }
+        if (subscription != null) {
+            subscription.cancel();
+            subscription = null;
+        }
+        if (resubscribePending) {
+            return;
+        }
+        long delay = Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << Math.min(consecutiveFailures, 20));
+        consecutiveFailures++;
+        resubscribePending = true;
+        log.info("Réabonnement aux changements des transferts dans {} ms", delay);
+        resubscriber.schedule(this::resubscribe, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void resubscribe() {
+        resubscribePending = false;
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Réabonnement impossible: {}", e.getMessage());
+            scheduleResubscribe();
+        }
+    }
+
+    private synchronized void resetBackoff() {
+        consecutiveFailures = 0;
+    }
+
+    // Reprend au curseur courant pour ne pas rejouer les minutes déjà traitées
+    private void rebuild(List<RecurringTransferChange> snapshot) {
+        HierarchicalTimingWheel<RecurringTransfer> current = wheel;
+        long cursor = current != null
+            ? current.getCursor()
+            : OccurrenceCalculator.toEpochMinute(LocalDateTime.now(clock).truncatedTo(ChronoUnit.MINUTES));
+        HierarchicalTimingWheel<RecurringTransfer> loaded = new HierarchicalTimingWheel<>(cursor);
+
+        replica.clear();
+        for (RecurringTransferChange change : snapshot) {
+            if (!change.isRemoval()) {
+                replica.put(change.transferId(), change.transfer());
+                arm(loaded, change.transfer());
+            }
+        }
+
+        wheel = loaded;
+        synced = true;
+        resetBackoff();
+        log.info("Réplique des transferts chargée avec {} transferts actifs", replica.size());
+    }
+
+    // Ne jamais armer dans le passé, sinon un transfert déjà traité serait rejoué
+    private static void arm(HierarchicalTimingWheel<RecurringTransfer> target, RecurringTransfer transfer) {
+        if (transfer.getNextExecution() == null || transfer.nextExecutionMinute() < target.getCursor()) {
+            // L'échéance armée devient celle du transfert : elle identifie l'occurrence exécutée
+            transfer.setNextExecution(
+                transfer.computeNextExecution(OccurrenceCalculator.fromEpochMinute(target.getCursor())));
+        }
+
+        if (!transfer.isActive() || transfer.getNextExecution() == null) {
+            target.cancel(transfer.getId());
+        } else {
+            target.schedule(transfer.getId(), transfer, transfer.nextExecutionMinute());
+        }
+    }
+}
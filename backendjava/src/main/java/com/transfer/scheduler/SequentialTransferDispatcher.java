@@ -0,0 +1,26 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.RecurringTransfer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(name = "transfer.scheduler.execution-mode", havingValue = "sequential", matchIfMissing = true)
+public class SequentialTransferDispatcher implements TransferDispatcher {
+
+    @Override
+    public DispatchReport dispatch(List<RecurringTransfer> transfers, Consumer<List<RecurringTransfer>> senderTask) {
+        long start = System.nanoTime();
+        TransferDispatcher.groupBySender(transfers).forEach(senderTask);
+        return new DispatchReport(transfers.size(), 0, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    @Override
+    public int backlog() {
+        return 0;
+    }
+}
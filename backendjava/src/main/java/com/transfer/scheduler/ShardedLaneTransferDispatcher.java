@@ -0,0 +1,119 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.RecurringTransfer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Répartit les transferts par hachage de fromUserId sur N files mono-thread : les transferts
+// d'un même expéditeur passent toujours par la même file, donc sans contention sur son document
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transfer.scheduler.execution-mode", havingValue = "lanes")
+public class ShardedLaneTransferDispatcher implements TransferDispatcher {
+    private final ThreadPoolExecutor[] lanes;
+    private final Duration tickBudget;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final InFlightOccurrences inFlight = new InFlightOccurrences();
+
+    public ShardedLaneTransferDispatcher(
+        MeterRegistry meterRegistry,
+        @Value("${transfer.scheduler.lanes.count:16}") int laneCount,
+        @Value("${transfer.scheduler.lanes.tick-budget:50s}") Duration tickBudget
+    ) {
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = "transfer-lane-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> Thread.ofPlatform().name(threadName).unstarted(runnable));
+            Gauge.builder("transfer.scheduler.lane.depth", lanes[i], lane -> lane.getQueue().size() + lane.getActiveCount())
+                .tag("lane", String.valueOf(i))
+                .description("Transferts en attente ou en cours dans la file")
+                .register(meterRegistry);
+        }
+        this.tickBudget = tickBudget;
+    }
+
+    @Override
+    public DispatchReport dispatch(List<RecurringTransfer> transfers, Consumer<List<RecurringTransfer>> senderTask) {
+        long start = System.nanoTime();
+        pending.addAndGet(transfers.size());
+
+        List<List<RecurringTransfer>> bySender = TransferDispatcher.groupBySender(transfers);
+        List<Future<?>> futures = new ArrayList<>(bySender.size());
+        for (List<RecurringTransfer> senderTransfers : bySender) {
+            List<String> occurrenceIds = inFlight.add(senderTransfers);
+            futures.add(laneFor(senderTransfers.get(0).getFromUserId()).submit(() -> {
+                try {
+                    senderTask.accept(senderTransfers);
+                } finally {
+                    pending.addAndGet(-senderTransfers.size());
+                    inFlight.remove(occurrenceIds);
+                }
+            }));
+        }
+
+        // Le tick attend au plus tickBudget ; les files continuent ensuite en arrière-plan
+        long deadline = start + tickBudget.toNanos();
+        for (Future<?> future : futures) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Erreur inattendue dans une file de transferts: {}", e.getCause().getMessage());
+            }
+        }
+
+        return new DispatchReport(transfers.size(), pending.get(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    @Override
+    public int backlog() {
+        return pending.get();
+    }
+
+    // Le tick rend la main après tickBudget : ce qui reste dans les files retient le filigrane
+    @Override
+    public Optional<LocalDateTime> oldestPending() {
+        return inFlight.oldest();
+    }
+
+    private ThreadPoolExecutor laneFor(String fromUserId) {
+        return lanes[Math.floorMod(fromUserId.hashCode(), lanes.length)];
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(tickBudget.toSeconds(), TimeUnit.SECONDS)) {
+                log.warn("Arrêt des files avec {} transferts encore en attente", pending.get());
+                return;
+            }
+        }
+    }
+}
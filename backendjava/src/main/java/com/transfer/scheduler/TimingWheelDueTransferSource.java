@@ -0,0 +1,99 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.ports.TransferRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+
+import static com.transfer.domain.OccurrenceCalculator.fromEpochMinute;
+import static com.transfer.domain.OccurrenceCalculator.toEpochMinute;
+
+// Garde en mémoire tous les transferts actifs dans une roue temporelle : un tick ne coûte
+// que le nombre de transferts échus, sans aucune lecture Firestore
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "transfer.scheduler.source", havingValue = "wheel")
+public class TimingWheelDueTransferSource implements DueTransferSource {
+    private final TransferRepository transferRepository;
+    private final Clock clock;
+    private volatile HierarchicalTimingWheel<RecurringTransfer> wheel;
+
+    // Premier appel : la roue est remplie avant d'être publiée, un tick ne voit jamais une roue
+    // partielle. Ensuite la roue en service est mise à jour sur place, sans changer de curseur :
+    // transferts créés ou modifiés hors du scheduler armés, transferts désactivés retirés.
+    @Override
+    public void refresh() {
+        HierarchicalTimingWheel<RecurringTransfer> target = current();
+        if (target == null) {
+            load();
+            return;
+        }
+
+        Set<String> stale = target.ids();
+        transferRepository.forEachActiveTransfer(transfer -> {
+            stale.remove(transfer.getId());
+            arm(target, transfer);
+        });
+        // Les transferts armés pendant le parcours n'en font pas partie
+        stale.forEach(target::cancel);
+        log.info("Roue temporelle mise à jour : {} transferts actifs, {} retirés", target.size(), stale.size());
+    }
+
+    @Override
+    public List<RecurringTransfer> findDueTransfers(LocalDateTime windowStart, LocalDateTime windowEnd) {
+        if (current() == null) {
+            refresh();
+        }
+        return current().advanceTo(toEpochMinute(windowEnd) - 1);
+    }
+
+    @Override
+    public void reschedule(RecurringTransfer transfer) {
+        HierarchicalTimingWheel<RecurringTransfer> target = current();
+        if (target != null) {
+            arm(target, transfer);
+        }
+    }
+
+    // Une initialisation concurrente (démarrage et premier tick) ne charge la roue qu'une fois
+    private synchronized void load() {
+        if (current() != null) {
+            return;
+        }
+        HierarchicalTimingWheel<RecurringTransfer> loaded = new HierarchicalTimingWheel<>(
+            toEpochMinute(LocalDateTime.now(clock).truncatedTo(ChronoUnit.MINUTES)));
+        transferRepository.forEachActiveTransfer(transfer -> arm(loaded, transfer));
+        wheel = loaded;
+        log.info("Roue temporelle chargée avec {} transferts actifs", loaded.size());
+    }
+
+    // Ne jamais armer dans le passé, sinon un transfert déjà traité ou en échec serait rejoué
+    private static void arm(HierarchicalTimingWheel<RecurringTransfer> target, RecurringTransfer transfer) {
+        target.scheduleFromCursor(transfer.getId(), transfer, cursor -> {
+            if (!transfer.isActive()) {
+                return OptionalLong.empty();
+            }
+            if (transfer.getNextExecution() == null || transfer.nextExecutionMinute() < cursor) {
+                // L'échéance armée devient celle du transfert : elle identifie l'occurrence exécutée
+                transfer.setNextExecution(transfer.computeNextExecution(fromEpochMinute(cursor)));
+            }
+            return transfer.getNextExecution() == null
+                ? OptionalLong.empty()
+                : OptionalLong.of(transfer.nextExecutionMinute());
+        });
+    }
+
+    private HierarchicalTimingWheel<RecurringTransfer> current() {
+        return wheel;
+    }
+}
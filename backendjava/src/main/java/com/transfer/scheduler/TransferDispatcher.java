@@ -0,0 +1,31 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.RecurringTransfer;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+public interface TransferDispatcher {
+    // Exécute les transferts dus du tick, regroupés par expéditeur ; peut rendre la main
+    // avant la fin (voir backlog)
+    DispatchReport dispatch(List<RecurringTransfer> transfers, Consumer<List<RecurringTransfer>> senderTask);
+
+    // Nombre de transferts soumis mais pas encore terminés
+    int backlog();
+
+    // Échéance prévue la plus ancienne parmi les transferts soumis et pas encore terminés : le
+    // filigrane persisté ne la dépasse pas, pour qu'un arrêt ne perde pas les transferts en file
+    default Optional<LocalDateTime> oldestPending() {
+        return Optional.empty();
+    }
+
+    static List<List<RecurringTransfer>> groupBySender(List<RecurringTransfer> transfers) {
+        return List.copyOf(transfers.stream()
+            .collect(Collectors.groupingBy(RecurringTransfer::getFromUserId, LinkedHashMap::new, Collectors.toList()))
+            .values());
+    }
+}
@@ -0,0 +1,126 @@
+package com.transfer.scheduler;
+
+import com.transfer.application.FirestoreCallGuard;
+import com.transfer.ports.TransferRetry;
+import com.transfer.ports.TransferRetryQueue;
+import com.transfer.service.TransferRetryService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Vide la file des relances par paquets, sur ses propres threads : les relances ne prennent
+// ni le thread du tick ni le pool @Scheduled et ne retardent jamais les échéances à l'heure.
+// Un paquet complet est suivi immédiatement du suivant, sinon le worker attend poll-interval.
+@Slf4j
+@Component
+public class TransferRetryWorker {
+    // Borne un passage : des relances restées dues (mise à jour en échec) ne le font pas boucler
+    private static final int MAX_BATCHES_PER_POLL = 20;
+
+    private final TransferRetryQueue retryQueue;
+    private final TransferRetryService transferRetryService;
+    private final FirestoreCallGuard firestoreCallGuard;
+    private final PartitionManager partitionManager;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+        runnable -> Thread.ofPlatform().name("transfer-retry-poller").daemon().unstarted(runnable));
+    private final ExecutorService workers;
+
+    public TransferRetryWorker(
+        TransferRetryQueue retryQueue,
+        TransferRetryService transferRetryService,
+        FirestoreCallGuard firestoreCallGuard,
+        PartitionManager partitionManager,
+        Clock clock,
+        @Value("${transfer.retry.enabled:true}") boolean enabled,
+        @Value("${transfer.retry.poll-interval:30s}") Duration pollInterval,
+        @Value("${transfer.retry.batch-size:100}") int batchSize,
+        @Value("${transfer.retry.workers:4}") int workerCount
+    ) {
+        this.retryQueue = retryQueue;
+        this.transferRetryService = transferRetryService;
+        this.firestoreCallGuard = firestoreCallGuard;
+        this.partitionManager = partitionManager;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> Thread.ofPlatform()
+            .name("transfer-retry-" + threadIndex.getAndIncrement())
+            .daemon()
+            .unstarted(runnable));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        poller.scheduleWithFixedDelay(this::drain, pollInterval.toMillis(), pollInterval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void drain() {
+        try {
+            for (int batch = 0; batch < MAX_BATCHES_PER_POLL; batch++) {
+                // Circuit ouvert : les relances attendent comme les échéances du tick
+                if (firestoreCallGuard.isOpen() || !drainBatch()) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors du traitement des relances: {}", e.getMessage());
+        }
+    }
+
+    // true si le paquet était complet et que d'autres relances dues peuvent suivre
+    private boolean drainBatch() {
+        List<TransferRetry> due = retryQueue.findDue(clock.instant(), batchSize);
+        if (due.isEmpty()) {
+            return false;
+        }
+
+        List<CompletableFuture<Void>> attempts = new ArrayList<>(due.size());
+        for (TransferRetry retry : due) {
+            // Une seule instance relance les transferts d'un expéditeur donné
+            if (partitionManager.ownsSender(retry.fromUserId())) {
+                attempts.add(CompletableFuture.runAsync(() -> attempt(retry), workers));
+            }
+        }
+        CompletableFuture.allOf(attempts.toArray(CompletableFuture[]::new)).join();
+        log.info("{} relances traitées", attempts.size());
+        return due.size() == batchSize && !attempts.isEmpty();
+    }
+
+    private void attempt(TransferRetry retry) {
+        try {
+            transferRetryService.retry(retry);
+        } catch (Exception e) {
+            // La relance reste dans la file avec sa date : elle sera reprise au prochain passage
+            log.error("Erreur lors de la relance {}: {}", retry.transactionId(), e.getMessage());
+        }
+    }
+}
@@ -1,58 +1,365 @@
 package com.transfer.scheduler;
 
+import com.transfer.application.FirestoreCallGuard;
+import com.transfer.application.FirestoreUnavailableException;
+import com.transfer.application.TransferMetrics;
 import com.transfer.domain.RecurringTransfer;
 import com.transfer.ports.TransferRepository;
 import com.transfer.service.TransferService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class TransferScheduler {
+    private static final Duration TICK_INTERVAL = Duration.ofMinutes(1);
+
     private final TransferRepository transferRepository;
     private final TransferService transferService;
+    private final DueTransferSource dueTransferSource;
+    private final TransferDispatcher transferDispatcher;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final PartitionManager partitionManager;
+    private final TransferMetrics transferMetrics;
+    private final CatchUpExecutor catchUpExecutor;
+    private final FirestoreCallGuard firestoreCallGuard;
+    // Transferts reportés faute de Firestore, repris au premier tick où le circuit est fermé
+    private final Map<String, RecurringTransfer> deferred = new ConcurrentHashMap<>();
+    // Minute du tick précédent, pour compter les minutes sautées
+    private LocalDateTime lastWindowStart;
+
+    @Value("${transfer.scheduler.batch-same-sender:true}")
+    private boolean batchSameSender;
+
+    @Value("${transfer.scheduler.balance-screening:true}")
+    private boolean balanceScreening;
+
+    // Au-delà, l'échéance reportée est abandonnée et notifiée comme un échec
+    @Value("${transfer.firestore.guard.max-deferral:1h}")
+    private Duration maxDeferral;
 
     @Scheduled(cron = "0 * * * * *") // Exécution à chaque minute
     public void checkAndExecuteTransfers() {
-        log.info("Vérification des transferts récurrents à {}", LocalDateTime.now());
-        LocalDateTime now = LocalDateTime.now();
+        long tickStart = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime windowStart = now.truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime windowEnd = windowStart.plusMinutes(1);
+        recordTickStart(windowStart, now);
+        log.info("Vérification des transferts récurrents dus entre {} et {}", windowStart, windowEnd);
+        catchUpExecutor.tickStarted(windowStart);
+
+        // Seuls les transferts dont la prochaine échéance tombe dans la minute courante sont lus
+        List<RecurringTransfer> due = dueTransferSource.findDueTransfers(windowStart, windowEnd);
+        var transfers = ownedTransfers(due, windowEnd);
+        transferMetrics.recordTick(due.size(), transfers.size());
+        log.info("Nombre de transferts dus trouvés : {}", transfers.size());
 
-        var transfers = transferRepository.findActiveTransfers();
-        log.info("Nombre de transferts actifs trouvés : {}", transfers.size());
+        // Circuit ouvert : les exécutions échoueraient toutes et chargeraient Firestore davantage
+        if (firestoreCallGuard.isOpen()) {
+            transfers.forEach(this::defer);
+            catchUpExecutor.tickCompleted(windowEnd, oldestDeferred());
+            log.warn("Circuit Firestore ouvert : {} transferts reportés à un prochain tick", deferred.size());
+            return;
+        }
+        transfers.addAll(resumeDeferred(transfers, windowStart, windowEnd));
 
-        transfers.stream()
-            .peek(transfer -> log.info("Vérification du transfert {} - lastExecuted: {}, startDate: {}, executionTime: {}",
+        // Une ligne par transfert ne tient pas à des milliers de transferts par minute : niveau debug
+        if (log.isDebugEnabled()) {
+            transfers.forEach(transfer -> log.debug("Transfert {} dû à {} - lastExecuted: {}, executionTime: {}",
                 transfer.getId(),
+                transfer.getNextExecution(),
                 transfer.getLastExecuted(),
-                transfer.getStartDate(),
-                transfer.getExecutionTime()))
-            .filter(transfer -> {
-                boolean shouldExecute = transfer.shouldExecuteNow(now);
-                log.info("Le transfert {} {} être exécuté",
-                    transfer.getId(),
-                    shouldExecute ? "doit" : "ne doit pas");
-                return shouldExecute;
-            })
-            .forEach(this::processTransfer);
+                transfer.getExecutionTime()));
+        }
+
+        Map<String, String> recipients = resolveRecipients(transfers);
+        if (balanceScreening) {
+            transfers = screenBalances(transfers, recipients);
+        }
+
+        DispatchReport report = transferDispatcher.dispatch(transfers, this::processSenderTransfers);
+        // File d'exécution pleine : repris au tick suivant, comme un transfert reporté
+        report.rejected().forEach(this::defer);
+        // Mises à jour d'échéance restées en attente (échéances déjà exécutées ailleurs)
+        boolean schedulesWritten = transferRepository.flushScheduleUpdates();
+        meterRegistry.timer("transfer.scheduler.tick.duration").record(report.duration());
+        if (schedulesWritten) {
+            catchUpExecutor.tickCompleted(windowEnd, oldestDeferred());
+        } else {
+            // Filigrane inchangé : le prochain tick rattrape cette minute et réécrit les échéances restées en retard
+            log.warn("Mises à jour d'échéance non confirmées, la minute {} sera reprise par le rattrapage", windowStart);
+        }
+        log.info("Tick terminé en {} ms : {} transferts soumis, {} encore en attente",
+            report.duration().toMillis(), report.submitted(), report.backlog());
+
+        Duration tickDuration = Duration.ofNanos(System.nanoTime() - tickStart);
+        if (tickDuration.compareTo(TICK_INTERVAL) > 0) {
+            transferMetrics.recordOverrun();
+            log.warn("Tick de {} plus long qu'une minute ({} ms) : les ticks suivants sont retardés",
+                windowStart, tickDuration.toMillis());
+        }
+    }
+
+    // Le planificateur n'a qu'un thread : un tick trop long retarde le suivant, voire en fait sauter
+    // (les minutes sautées sont rattrapées par CatchUpExecutor)
+    private void recordTickStart(LocalDateTime windowStart, LocalDateTime now) {
+        long missed = lastWindowStart == null ? 0 : ChronoUnit.MINUTES.between(lastWindowStart, windowStart) - 1;
+        if (missed > 0) {
+            log.warn("{} minutes sans tick avant {}", missed, windowStart);
+        }
+        transferMetrics.recordTickStart(missed, Duration.between(windowStart, now));
+        lastWindowStart = windowStart;
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("transfer.scheduler.backlog", transferDispatcher, TransferDispatcher::backlog)
+            .description("Transferts soumis mais pas encore terminés")
+            .register(meterRegistry);
+        Gauge.builder("transfer.scheduler.deferred", deferred, Map::size)
+            .description("Transferts reportés en attente du rétablissement de Firestore")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${transfer.scheduler.refresh-cron:30 */15 * * * *}")
+    public void refreshDueTransferSource() {
+        try {
+            dueTransferSource.refresh();
+        } catch (Exception e) {
+            log.error("Erreur lors de la resynchronisation des transferts actifs: {}", e.getMessage());
+        }
+    }
+
+    // Ne garde que les transferts des partitions détenues par cette instance ; les autres sont
+    // réarmés à leur échéance suivante, l'instance propriétaire se charge de celle-ci
+    private List<RecurringTransfer> ownedTransfers(List<RecurringTransfer> due, LocalDateTime windowEnd) {
+        List<RecurringTransfer> owned = new ArrayList<>(due.size());
+        for (RecurringTransfer transfer : due) {
+            if (partitionManager.owns(transfer)) {
+                owned.add(transfer);
+            } else {
+                transfer.setNextExecution(transfer.computeNextExecution(windowEnd));
+                dueTransferSource.reschedule(transfer);
+            }
+        }
+        if (owned.size() < due.size()) {
+            log.debug("{} transferts dus laissés aux autres instances", due.size() - owned.size());
+        }
+        return owned;
+    }
+
+    // Reprend les transferts reportés, sauf ceux déjà dus dans ce tick ; une échéance reportée
+    // depuis plus de maxDeferral est abandonnée et le transfert repart sur l'échéance suivante
+    private List<RecurringTransfer> resumeDeferred(List<RecurringTransfer> transfers, LocalDateTime windowStart,
+                                                   LocalDateTime windowEnd) {
+        if (deferred.isEmpty()) {
+            return List.of();
+        }
+        Set<String> dueIds = new HashSet<>();
+        transfers.forEach(transfer -> dueIds.add(transfer.getId()));
+        LocalDateTime expiry = windowStart.minus(maxDeferral);
+
+        List<RecurringTransfer> resumed = new ArrayList<>();
+        for (RecurringTransfer transfer : deferred.values()) {
+            if (!deferred.remove(transfer.getId(), transfer) || dueIds.contains(transfer.getId())) {
+                continue;
+            }
+            LocalDateTime next = transfer.getNextExecution();
+            if (next == null) {
+                // Plus d'échéance (fin atteinte entre-temps) : rien à reprendre
+                continue;
+            }
+            if (next.isBefore(expiry)) {
+                abandonDeferred(transfer, windowEnd);
+            } else {
+                resumed.add(transfer);
+            }
+        }
+        if (!resumed.isEmpty()) {
+            log.info("{} transferts reportés repris", resumed.size());
+        }
+        return resumed;
+    }
+
+    // Échéance reportée la plus ancienne : elle n'est exécutée que par ce processus, le filigrane
+    // persisté ne la dépasse pas pour qu'un redémarrage la rattrape
+    private Optional<LocalDateTime> oldestDeferred() {
+        LocalDateTime oldest = null;
+        for (RecurringTransfer transfer : deferred.values()) {
+            LocalDateTime next = transfer.getNextExecution();
+            if (next != null && (oldest == null || next.isBefore(oldest))) {
+                oldest = next;
+            }
+        }
+        return Optional.ofNullable(oldest);
+    }
+
+    private void defer(RecurringTransfer transfer) {
+        log.debug("Transfert {} reporté, échéance {}", transfer.getId(), transfer.getNextExecution());
+        deferred.put(transfer.getId(), transfer);
+    }
+
+    private void abandonDeferred(RecurringTransfer transfer, LocalDateTime windowEnd) {
+        log.warn("Échéance {} du transfert {} reportée depuis plus de {}, abandonnée",
+            transfer.getNextExecution(), transfer.getId(), maxDeferral);
+        handleTransferError(transfer, new FirestoreUnavailableException("Firestore indisponible trop longtemps"));
+        transfer.setNextExecution(transfer.computeNextExecution(windowEnd));
+        try {
+            transferRepository.updateNextExecution(transfer.getId(), transfer.getNextExecution());
+        } catch (Exception e) {
+            log.error("Impossible de réarmer le transfert {}: {}", transfer.getId(), e.getMessage());
+        }
+        dueTransferSource.reschedule(transfer);
+    }
+
+    // Résout tous les bénéficiaires du tick en requêtes groupées : les exécutions trouvent
+    // ensuite leurs numéros en cache au lieu d'une requête users chacune
+    private Map<String, String> resolveRecipients(List<RecurringTransfer> transfers) {
+        if (transfers.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return transferRepository.findUserIdsByPhones(transfers.stream().map(RecurringTransfer::getToPhone).toList());
+        } catch (Exception e) {
+            log.warn("Résolution groupée des bénéficiaires impossible, repli sur les recherches unitaires: {}",
+                e.getMessage());
+            return Map.of();
+        }
+    }
+
+    // Pré-filtrage : les soldes des expéditeurs sont lus en une requête, et un transfert plus élevé
+    // que le solde augmenté de ce que l'expéditeur reçoit dans ce même tick ne peut pas passer.
+    // Il va directement au chemin d'échec groupé, sans transaction ; la vérification dans la
+    // transaction reste l'autorité pour tous les autres.
+    private List<RecurringTransfer> screenBalances(List<RecurringTransfer> transfers, Map<String, String> recipients) {
+        if (transfers.isEmpty()) {
+            return transfers;
+        }
+        Map<String, Double> dueBySender = new HashMap<>();
+        Map<String, Double> incoming = new HashMap<>();
+        for (RecurringTransfer transfer : transfers) {
+            dueBySender.merge(transfer.getFromUserId(), transfer.getAmount(), Double::sum);
+            String toUserId = recipients.get(transfer.getToPhone());
+            if (toUserId != null) {
+                incoming.merge(toUserId, transfer.getAmount(), Double::sum);
+            }
+        }
+
+        Map<String, Double> balances;
+        try {
+            balances = transferRepository.findBalances(dueBySender.keySet());
+        } catch (Exception e) {
+            log.warn("Lecture groupée des soldes impossible, pas de pré-filtrage: {}", e.getMessage());
+            return transfers;
+        }
+
+        List<RecurringTransfer> covered = new ArrayList<>(transfers.size());
+        List<RecurringTransfer> doomed = new ArrayList<>();
+        for (RecurringTransfer transfer : transfers) {
+            String sender = transfer.getFromUserId();
+            Double balance = balances.get(sender);
+            double available = balance == null ? Double.POSITIVE_INFINITY : balance + incoming.getOrDefault(sender, 0.0);
+            // Le total dû par l'expéditeur passe : rien à écarter chez lui
+            if (dueBySender.get(sender) <= available || transfer.getAmount() <= available) {
+                covered.add(transfer);
+            } else {
+                doomed.add(transfer);
+            }
+        }
+        if (doomed.isEmpty()) {
+            return transfers;
+        }
+
+        log.info("{} transferts écartés avant exécution : solde insuffisant", doomed.size());
+        meterRegistry.counter("transfer.scheduler.prescreened").increment(doomed.size());
+        try {
+            transferService.recordInsufficientFunds(doomed, recipients);
+            doomed.forEach(dueTransferSource::reschedule);
+        } catch (FirestoreUnavailableException e) {
+            doomed.forEach(this::defer);
+        } catch (Exception e) {
+            // Les échecs n'ont pas pu être écrits : les transactions en décideront
+            log.error("Erreur lors de l'enregistrement des transferts sans provision: {}", e.getMessage());
+            return transfers;
+        }
+        return covered;
+    }
+
+    private void processSenderTransfers(List<RecurringTransfer> transfers) {
+        LocalDateTime startedAt = LocalDateTime.now(clock);
+        for (RecurringTransfer transfer : transfers) {
+            transferMetrics.recordLateness(Duration.between(transfer.getNextExecution(), startedAt));
+        }
+        transferMetrics.executionStarted(transfers.size());
+        try {
+            executeSenderTransfers(transfers);
+        } finally {
+            transferMetrics.executionFinished(transfers.size());
+        }
+    }
+
+    private void executeSenderTransfers(List<RecurringTransfer> transfers) {
+        if (!batchSameSender || transfers.size() == 1) {
+            transfers.forEach(this::processTransfer);
+            return;
+        }
+
+        try {
+            transferService.executeTransferBatch(transfers);
+            log.debug("{} transferts de {} exécutés en lot", transfers.size(), transfers.get(0).getFromUserId());
+        } catch (FirestoreUnavailableException e) {
+            // Ni échec ni réarmement : les transferts sont repris à un prochain tick
+            transfers.forEach(this::defer);
+            return;
+        } catch (Exception e) {
+            log.error("Erreur lors de l'exécution groupée des transferts de {}: {}",
+                transfers.get(0).getFromUserId(), e.getMessage());
+            transfers.forEach(transfer -> handleTransferError(transfer, e));
+        }
+        transfers.forEach(dueTransferSource::reschedule);
     }
 
     private void processTransfer(RecurringTransfer transfer) {
         try {
             transferService.executeTransfer(transfer);
-            log.info("Transfert {} exécuté avec succès", transfer.getId());
+            log.debug("Transfert {} exécuté avec succès", transfer.getId());
+        } catch (FirestoreUnavailableException e) {
+            defer(transfer);
+            return;
         } catch (Exception e) {
-            log.error("Erreur lors de l'exécution du transfert-transferScheduler {}: {}", 
+            log.error("Erreur lors de l'exécution du transfert-transferScheduler {}: {}",
                 transfer.getId(), e.getMessage());
             handleTransferError(transfer, e);
         }
+        dueTransferSource.reschedule(transfer);
     }
 
     private void handleTransferError(RecurringTransfer transfer, Exception error) {
+        transferMetrics.recordFailure(error.getMessage());
         transferRepository.createNotification(
             transfer.getFromUserId(),
             "Échec du transfert récurrent",
@@ -62,4 +369,4 @@ public class TransferScheduler {
                 error.getMessage())
         );
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,122 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.RecurringTransfer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Répartit les transferts dus sur des threads virtuels : un thread par expéditeur, qui exécute
+// ses transferts l'un après l'autre, avec un plafond global d'expéditeurs traités simultanément
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transfer.scheduler.execution-mode", havingValue = "virtual-threads")
+public class VirtualThreadTransferDispatcher implements TransferDispatcher {
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("transfer-vt-", 0).factory()
+    );
+    private final Semaphore permits;
+    private final ReentrantLock[] senderLocks;
+    private final Duration tickBudget;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final InFlightOccurrences inFlight = new InFlightOccurrences();
+
+    public VirtualThreadTransferDispatcher(
+        @Value("${transfer.scheduler.virtual-threads.max-concurrency:64}") int maxConcurrency,
+        @Value("${transfer.scheduler.virtual-threads.sender-lock-stripes:1024}") int senderLockStripes,
+        @Value("${transfer.scheduler.virtual-threads.tick-budget:50s}") Duration tickBudget
+    ) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.senderLocks = new ReentrantLock[senderLockStripes];
+        for (int i = 0; i < senderLockStripes; i++) {
+            senderLocks[i] = new ReentrantLock(true);
+        }
+        this.tickBudget = tickBudget;
+    }
+
+    @Override
+    public DispatchReport dispatch(List<RecurringTransfer> transfers, Consumer<List<RecurringTransfer>> senderTask) {
+        long start = System.nanoTime();
+        List<List<RecurringTransfer>> bySender = TransferDispatcher.groupBySender(transfers);
+
+        pending.addAndGet(transfers.size());
+        List<Future<?>> futures = new ArrayList<>(bySender.size());
+        for (List<RecurringTransfer> senderTransfers : bySender) {
+            List<String> occurrenceIds = inFlight.add(senderTransfers);
+            futures.add(executor.submit(() -> runSenderTransfers(senderTransfers, occurrenceIds, senderTask)));
+        }
+
+        // Le tick attend au plus tickBudget ; le reste continue en arrière-plan
+        long deadline = start + tickBudget.toNanos();
+        for (Future<?> future : futures) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Erreur inattendue dans un lot de transferts: {}", e.getCause().getMessage());
+            }
+        }
+
+        return new DispatchReport(transfers.size(), pending.get(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    @Override
+    public int backlog() {
+        return pending.get();
+    }
+
+    // Le tick rend la main après tickBudget : ce qui tourne encore retient le filigrane
+    @Override
+    public Optional<LocalDateTime> oldestPending() {
+        return inFlight.oldest();
+    }
+
+    // Un même expéditeur ne s'exécute jamais en parallèle, y compris d'un tick à l'autre
+    private void runSenderTransfers(List<RecurringTransfer> transfers, List<String> occurrenceIds,
+                                    Consumer<List<RecurringTransfer>> senderTask) {
+        String sender = transfers.get(0).getFromUserId();
+        ReentrantLock lock = senderLocks[Math.floorMod(sender.hashCode(), senderLocks.length)];
+        lock.lock();
+        try {
+            permits.acquireUninterruptibly();
+            try {
+                senderTask.accept(transfers);
+            } finally {
+                permits.release();
+                pending.addAndGet(-transfers.size());
+                inFlight.remove(occurrenceIds);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(tickBudget.toSeconds(), TimeUnit.SECONDS)) {
+            log.warn("Arrêt du dispatcher avec {} transferts encore en attente", pending.get());
+        }
+    }
+}
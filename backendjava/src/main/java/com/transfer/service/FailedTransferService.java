@@ -2,52 +2,63 @@ package com.transfer.service;
 
 import com.transfer.domain.RecurringTransfer;
 import com.transfer.domain.TransactionStatus;
+import com.transfer.ports.AsyncTransferRepository;
 import com.transfer.ports.FailedTransferHandler;
 import com.transfer.ports.TransferRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FailedTransferService implements FailedTransferHandler {
     private final TransferRepository transferRepository;
+    private final AsyncTransferRepository asyncTransferRepository;
+    private final TransferRetryService transferRetryService;
 
     @Override
     public void handleFailedTransfer(RecurringTransfer transfer, String reason) {
         try {
-            // Rechercher le toUserId à partir du numéro de téléphone
-            String toUserId = transferRepository.findUserIdByPhone(transfer.getToPhone());
-            
-            // Créer une transaction avec le statut FAILED
-            transferRepository.createFailedTransaction(transfer, toUserId, reason);
-            
-            // Créer une notification pour l'utilisateur
-            String message = String.format(
-                "Le transfert programmé de %s FCFA vers %s a échoué : %s",
-                transfer.getAmount(),
-                transfer.getToPhone(),
-                reason
-            );
-            
-            transferRepository.createNotification(
-                transfer.getFromUserId(),
-                "Échec du transfert programmé",
-                message
-            );
-            
+            handleFailedTransferAsync(transfer, reason).join();
             log.info("Transfert échoué géré avec succès: {}", transfer.getId());
         } catch (Exception e) {
             log.error("Erreur lors de la gestion du transfert échoué: {}", e.getMessage());
         }
     }
 
+    public CompletableFuture<Void> handleFailedTransferAsync(RecurringTransfer transfer, String reason) {
+        // Rechercher le toUserId à partir du numéro de téléphone
+        return asyncTransferRepository.findUserIdByPhone(transfer.getToPhone())
+            .thenCompose(toUserId -> {
+                String message = String.format(
+                    "Le transfert programmé de %s FCFA vers %s a échoué : %s",
+                    transfer.getAmount(),
+                    transfer.getToPhone(),
+                    reason
+                );
+
+                // La transaction FAILED et la notification partent en parallèle
+                return CompletableFuture.allOf(
+                    asyncTransferRepository.createFailedTransaction(transfer, toUserId, reason),
+                    asyncTransferRepository.createNotification(
+                        transfer.getFromUserId(),
+                        "Échec du transfert programmé",
+                        message
+                    )
+                );
+            });
+    }
+
     @Override
     public void retryTransfer(String transferId) {
         try {
-            transferRepository.updateTransactionStatus(transferId, TransactionStatus.retrying);
-            // Logique de relance à implémenter
+            // La relance est exécutée par TransferRetryWorker dès son prochain passage
+            if (!transferRetryService.retryNow(transferId)) {
+                log.warn("Aucune relance en attente pour la transaction {}", transferId);
+            }
         } catch (Exception e) {
             log.error("Erreur lors de la relance du transfert: {}", e.getMessage());
         }
@@ -57,6 +68,7 @@ public class FailedTransferService implements FailedTransferHandler {
     public void cancelFailedTransfer(String transferId) {
         try {
             transferRepository.updateTransactionStatus(transferId, TransactionStatus.canceled);
+            transferRetryService.cancel(transferId);
         } catch (Exception e) {
             log.error("Erreur lors de l'annulation du transfert: {}", e.getMessage());
         }
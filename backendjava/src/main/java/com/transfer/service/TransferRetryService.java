@@ -0,0 +1,88 @@
+package com.transfer.service;
+
+import com.transfer.application.FirestoreUnavailableException;
+import com.transfer.application.RetryPolicy;
+import com.transfer.domain.ExecutionOutcome;
+import com.transfer.ports.TransferRepository;
+import com.transfer.ports.TransferRetry;
+import com.transfer.ports.TransferRetryQueue;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+
+// Une tentative de relance : la relance quitte la file quand l'échéance est exécutée (ou l'était
+// déjà), sinon elle est reprogrammée selon RetryPolicy jusqu'à épuisement des tentatives
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferRetryService {
+    private final TransferRepository transferRepository;
+    private final TransferRetryQueue retryQueue;
+    private final RetryPolicy retryPolicy;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+
+    public void retry(TransferRetry retry) {
+        ExecutionOutcome outcome;
+        try {
+            outcome = transferRepository.retryFailedTransfer(retry);
+        } catch (FirestoreUnavailableException e) {
+            // La tentative n'a pas eu lieu : reportée sans être décomptée
+            retryQueue.reschedule(retry.transactionId(), retry.retryCount(), retryPolicy.postponed(),
+                retry.lastFailureReason());
+            record("postponed");
+            return;
+        } catch (Exception e) {
+            log.warn("Relance {} en échec: {}", retry.transactionId(), e.getMessage());
+            scheduleNextAttempt(retry, e.getMessage());
+            return;
+        }
+
+        switch (outcome) {
+            case executed, alreadyExecuted -> {
+                retryQueue.remove(retry.transactionId());
+                record(outcome.name());
+            }
+            case insufficientFunds -> scheduleNextAttempt(retry, "Solde insuffisant");
+        }
+    }
+
+    // Relance manuelle : la prochaine tentative est avancée à maintenant
+    public boolean retryNow(String transactionId) {
+        return retryQueue.expedite(transactionId, clock.instant());
+    }
+
+    public void cancel(String transactionId) {
+        retryQueue.remove(transactionId);
+    }
+
+    private void scheduleNextAttempt(TransferRetry retry, String reason) {
+        int attempts = retry.retryCount() + 1;
+        Optional<Instant> nextAttempt = retryPolicy.nextAttempt(reason, attempts);
+        if (nextAttempt.isPresent()) {
+            retryQueue.reschedule(retry.transactionId(), attempts, nextAttempt.get(), reason);
+            log.debug("Relance {} reprogrammée à {} ({} tentatives)", retry.transactionId(), nextAttempt.get(), attempts);
+            record("rescheduled");
+            return;
+        }
+
+        retryQueue.remove(retry.transactionId());
+        record("abandoned");
+        log.info("Relance {} abandonnée après {} tentatives: {}", retry.transactionId(), attempts, reason);
+        transferRepository.createNotification(
+            retry.fromUserId(),
+            "Échec définitif du transfert programmé",
+            String.format("Le transfert de %.2f FCFA vers %s n'a pas pu être effectué : %s",
+                retry.amount(), retry.toPhone(), reason)
+        );
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter("transfer.retry.attempts", "outcome", outcome).increment();
+    }
+}
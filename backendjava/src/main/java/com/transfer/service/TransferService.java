@@ -3,32 +3,98 @@ package com.transfer.service;
 import com.google.cloud.firestore.Firestore;
 import com.google.firebase.cloud.FirestoreClient;
 import com.transfer.domain.RecurringTransfer;
+import com.transfer.domain.ScheduleAdvance;
 import com.transfer.ports.TransferRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.HashMap;
 import com.google.cloud.firestore.FieldValue;
+import com.transfer.application.FirestoreUnavailableException;
 import com.transfer.application.TransferException;
 
 @Service
 @RequiredArgsConstructor
 public class TransferService {
     private final TransferRepository transferRepository;
+    private final Clock clock;
 
     public void executeTransfer(RecurringTransfer transfer) {
         try {
+            // L'échéance suivante est calculée avant l'exécution et écrite avec son résultat :
+            // dans la transaction du débit, ou avec l'échec
+            LocalDateTime executedAt = LocalDateTime.now(clock);
+            ScheduleAdvance advance = ScheduleAdvance.of(transfer, executedAt, executedAt);
             // Déléguer l'exécution au repository qui gère correctement la conversion phone -> userId
-            transferRepository.executeTransfer(transfer);
-            
-            // Mettre à jour la date de dernière exécution
-            transferRepository.updateLastExecuted(transfer.getId(), LocalDateTime.now());
-            
+            transferRepository.executeTransfer(transfer, advance);
+            advance.applyTo(transfer);
+        } catch (FirestoreUnavailableException e) {
+            // Firestore indisponible : le scheduler reporte le transfert sur la même échéance,
+            // le registre des échéances écarte un second débit si elle a déjà été exécutée
+            throw e;
         } catch (Exception e) {
             throw new TransferException("Erreur lors de l'exécution du transfert-transfert-service", e);
         }
     }
-} 
\ No newline at end of file
+
+    // Rattrapage d'une échéance manquée : la suivante est calculée depuis l'échéance rattrapée et non
+    // depuis l'heure courante, pour que les échéances encore dépassées soient rattrapées à leur tour
+    public void executeMissedOccurrence(RecurringTransfer transfer) {
+        try {
+            LocalDateTime occurrence = transfer.getNextExecution();
+            ScheduleAdvance advance = ScheduleAdvance.of(transfer, occurrence, occurrence.plusMinutes(1));
+            transferRepository.executeTransfer(transfer, advance);
+            advance.applyTo(transfer);
+        } catch (FirestoreUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new TransferException("Erreur lors du rattrapage du transfert-transfert-service", e);
+        }
+    }
+
+    // Transferts d'un même expéditeur : un seul débit, les échéances avancent dans la même transaction
+    public void executeTransferBatch(List<RecurringTransfer> transfers) {
+        if (transfers.size() == 1) {
+            executeTransfer(transfers.get(0));
+            return;
+        }
+
+        try {
+            Map<String, ScheduleAdvance> advances = advances(transfers);
+            transferRepository.executeTransferBatch(transfers, advances);
+            transfers.forEach(transfer -> advances.get(transfer.getId()).applyTo(transfer));
+        } catch (FirestoreUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new TransferException("Erreur lors de l'exécution groupée des transferts-transfert-service", e);
+        }
+    }
+
+    // Transferts écartés avant exécution, leur solde ne pouvant les couvrir : pas de transaction,
+    // les échecs et les échéances suivantes sont écrits en lot
+    public void recordInsufficientFunds(List<RecurringTransfer> transfers, Map<String, String> recipients) {
+        try {
+            Map<String, ScheduleAdvance> advances = advances(transfers);
+            transferRepository.createFailedTransactions(transfers, recipients, advances, "Solde insuffisant");
+            transfers.forEach(transfer -> advances.get(transfer.getId()).applyTo(transfer));
+        } catch (FirestoreUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new TransferException("Erreur lors de l'enregistrement des transferts sans provision-transfert-service", e);
+        }
+    }
+
+    private Map<String, ScheduleAdvance> advances(List<RecurringTransfer> transfers) {
+        LocalDateTime executedAt = LocalDateTime.now(clock);
+        Map<String, ScheduleAdvance> advances = new HashMap<>();
+        for (RecurringTransfer transfer : transfers) {
+            advances.put(transfer.getId(), ScheduleAdvance.of(transfer, executedAt, executedAt));
+        }
+        return advances;
+    }
+}
@@ -0,0 +1,103 @@
+package com.transfer.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void refusesBeyondTheLimitUntilAPlaceIsReleased() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, THRESHOLD);
+
+        assertThat(limiter.tryAcquire(0)).isTrue();
+        assertThat(limiter.tryAcquire(0)).isTrue();
+        assertThat(limiter.tryAcquire(0)).isFalse();
+
+        limiter.release(FAST, false);
+
+        assertThat(limiter.tryAcquire(0)).isTrue();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void waitsForAReleaseWithinTheTimeout() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 0.5, THRESHOLD);
+        assertThat(limiter.tryAcquire(0)).isTrue();
+
+        Thread releaser = Thread.ofPlatform().start(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            limiter.release(FAST, false);
+        });
+
+        assertThat(limiter.tryAcquire(TimeUnit.SECONDS.toNanos(5))).isTrue();
+        releaser.join();
+    }
+
+    @Test
+    void shrinksMultiplicativelyOnOverloadOrSlowCallsDownToTheMinimum() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 3, 32, 0.5, THRESHOLD);
+
+        limiter.tryAcquire(0);
+        limiter.release(FAST, true);
+        assertThat(limiter.limit()).isEqualTo(8);
+
+        limiter.tryAcquire(0);
+        limiter.release(THRESHOLD + 1, false);
+        assertThat(limiter.limit()).isEqualTo(4);
+
+        limiter.tryAcquire(0);
+        limiter.release(THRESHOLD + 1, false);
+        assertThat(limiter.limit()).isEqualTo(3);
+    }
+
+    @Test
+    void growsAdditivelyOnlyWhileSaturatedAndUpToTheMaximum() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 5, 0.5, THRESHOLD);
+
+        // Une seule place occupée sur quatre : la limite n'est pas utilisée, elle ne grandit pas
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(0);
+            limiter.release(FAST, false);
+        }
+        assertThat(limiter.limit()).isEqualTo(4);
+
+        // Deux places tenues en permanence : chaque appel rapide ajoute 1 / limite
+        limiter.tryAcquire(0);
+        limiter.tryAcquire(0);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire(0);
+            limiter.release(FAST, false);
+        }
+        assertThat(limiter.limit()).isEqualTo(4);
+        limiter.tryAcquire(0);
+        limiter.release(FAST, false);
+        assertThat(limiter.limit()).isEqualTo(5);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(0);
+            limiter.release(FAST, false);
+        }
+        assertThat(limiter.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void cancelReturnsThePlaceWithoutMovingTheLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 0.5, THRESHOLD);
+        limiter.tryAcquire(0);
+
+        limiter.cancel();
+
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.limit()).isEqualTo(1);
+        assertThat(limiter.tryAcquire(0)).isTrue();
+    }
+}
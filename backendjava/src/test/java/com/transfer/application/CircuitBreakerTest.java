@@ -0,0 +1,132 @@
+package com.transfer.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    @Test
+    void opensOnceTheFailureRateReachesTheThresholdAfterTheMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(new ManualClock(), 10, 4, 0.5, OPEN_DURATION, 2);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+        // Moins de 4 appels : pas encore de décision
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.closed);
+
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.open);
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void staysClosedBelowTheThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(new ManualClock(), 10, 4, 0.5, OPEN_DURATION, 2);
+
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.closed);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void forgetsFailuresThatLeftTheSlidingWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(new ManualClock(), 4, 4, 0.5, OPEN_DURATION, 2);
+
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess();
+        }
+        // 4 échecs sur 8 depuis le début, mais 1 sur les 4 derniers appels
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.closed);
+    }
+
+    @Test
+    void letsALimitedNumberOfProbesThroughAndClosesWhenTheySucceed() {
+        ManualClock clock = new ManualClock();
+        CircuitBreaker breaker = opened(clock);
+
+        clock.advance(OPEN_DURATION.minusMillis(1));
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        clock.advance(Duration.ofMillis(1));
+        assertThat(breaker.isOpen()).isFalse();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.halfOpen);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.halfOpen);
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.closed);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void reopensForAFullDurationWhenAProbeFails() {
+        ManualClock clock = new ManualClock();
+        CircuitBreaker breaker = opened(clock);
+        clock.advance(OPEN_DURATION);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.open);
+        clock.advance(OPEN_DURATION.minusMillis(1));
+        assertThat(breaker.tryAcquire()).isFalse();
+        clock.advance(Duration.ofMillis(1));
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private static CircuitBreaker opened(Clock clock) {
+        CircuitBreaker breaker = new CircuitBreaker(clock, 10, 2, 0.5, OPEN_DURATION, 2);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.open);
+        return breaker;
+    }
+
+    private static final class ManualClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
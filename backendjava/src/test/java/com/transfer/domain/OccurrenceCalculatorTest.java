@@ -0,0 +1,91 @@
+package com.transfer.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OccurrenceCalculatorTest {
+    private static final LocalTime TEN_THIRTY = LocalTime.of(10, 30);
+
+    @Test
+    void weeklyRunsOnTheStartDayOfWeek() {
+        // Lundi 1er janvier 2024
+        RecurringTransfer transfer = transfer(RecurringFrequency.weekly, LocalDateTime.of(2024, 1, 1, 8, 0));
+
+        assertThat(OccurrenceCalculator.nextOccurrence(transfer, LocalDateTime.of(2024, 1, 3, 0, 0)))
+            .isEqualTo(LocalDateTime.of(2024, 1, 8, 10, 30));
+        assertThat(OccurrenceCalculator.nextOccurrence(transfer, LocalDateTime.of(2024, 1, 8, 10, 30)))
+            .isEqualTo(LocalDateTime.of(2024, 1, 8, 10, 30));
+        assertThat(OccurrenceCalculator.nextOccurrence(transfer, LocalDateTime.of(2024, 1, 8, 10, 31)))
+            .isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 30));
+    }
+
+    @Test
+    void weeklyRunsAgainExactlySevenDaysAfterTheLastRun() {
+        RecurringTransfer transfer = transfer(RecurringFrequency.weekly, LocalDateTime.of(2024, 1, 1, 8, 0));
+        LocalDateTime lastExecuted = LocalDateTime.of(2024, 1, 8, 10, 30);
+
+        transfer.setLastExecuted(lastExecuted);
+
+        LocalDateTime next = transfer.computeNextExecution(lastExecuted);
+
+        assertThat(next).isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 30));
+        transfer.setNextExecution(next);
+        assertThat(transfer.shouldExecuteNow(LocalDateTime.of(2024, 1, 15, 10, 30))).isTrue();
+    }
+
+    @Test
+    void monthlyOnThe31stRunsOnTheLastDayOfShortMonths() {
+        RecurringTransfer transfer = transfer(RecurringFrequency.monthly, LocalDateTime.of(2023, 1, 31, 8, 0));
+
+        assertThat(OccurrenceCalculator.nextOccurrence(transfer, LocalDateTime.of(2023, 2, 1, 0, 0)))
+            .isEqualTo(LocalDateTime.of(2023, 2, 28, 10, 30));
+        assertThat(OccurrenceCalculator.nextOccurrence(transfer, LocalDateTime.of(2023, 4, 1, 0, 0)))
+            .isEqualTo(LocalDateTime.of(2023, 4, 30, 10, 30));
+        // Le mois suivant reprend le 31
+        assertThat(OccurrenceCalculator.nextOccurrence(transfer, LocalDateTime.of(2023, 4, 30, 10, 31)))
+            .isEqualTo(LocalDateTime.of(2023, 5, 31, 10, 30));
+    }
+
+    @Test
+    void monthlyOnThe31stRunsOnThe29thOfFebruaryInLeapYears() {
+        RecurringTransfer transfer = transfer(RecurringFrequency.monthly, LocalDateTime.of(2024, 1, 31, 8, 0));
+
+        assertThat(OccurrenceCalculator.nextOccurrence(transfer, LocalDateTime.of(2024, 2, 1, 0, 0)))
+            .isEqualTo(LocalDateTime.of(2024, 2, 29, 10, 30));
+    }
+
+    @Test
+    void yearlyOnThe29thOfFebruaryRunsOnThe28thOutsideLeapYears() {
+        RecurringTransfer transfer = transfer(RecurringFrequency.yearly, LocalDateTime.of(2024, 2, 29, 8, 0));
+
+        assertThat(OccurrenceCalculator.nextOccurrence(transfer, LocalDateTime.of(2024, 3, 1, 0, 0)))
+            .isEqualTo(LocalDateTime.of(2025, 2, 28, 10, 30));
+        assertThat(OccurrenceCalculator.nextOccurrence(transfer, LocalDateTime.of(2027, 3, 1, 0, 0)))
+            .isEqualTo(LocalDateTime.of(2028, 2, 29, 10, 30));
+    }
+
+    @Test
+    void noOccurrenceAfterEndDate() {
+        RecurringTransfer transfer = transfer(RecurringFrequency.monthly, LocalDateTime.of(2024, 1, 31, 8, 0));
+        transfer.setEndDate(LocalDateTime.of(2024, 3, 15, 0, 0));
+
+        assertThat(OccurrenceCalculator.nextOccurrence(transfer, LocalDateTime.of(2024, 3, 1, 0, 0))).isNull();
+    }
+
+    private static RecurringTransfer transfer(RecurringFrequency frequency, LocalDateTime startDate) {
+        return RecurringTransfer.builder()
+            .id("transfer-1")
+            .fromUserId("user-1")
+            .toPhone("+221770000001")
+            .amount(2500.0)
+            .frequency(frequency)
+            .startDate(startDate)
+            .executionTime(TEN_THIRTY)
+            .isActive(true)
+            .build();
+    }
+}
@@ -0,0 +1,156 @@
+package com.transfer.scheduler;
+
+import com.transfer.application.FirestoreCallGuard;
+import com.transfer.application.RetryPolicy;
+import com.transfer.application.TransferMetrics;
+import com.transfer.domain.RecurringFrequency;
+import com.transfer.domain.RecurringTransfer;
+import com.transfer.infrastructure.firebase.TransactionRetryMetrics;
+import com.transfer.infrastructure.memory.InMemoryFaultInjector;
+import com.transfer.infrastructure.memory.InMemoryPartitionLeaseStore;
+import com.transfer.infrastructure.memory.InMemorySchedulerWatermarkStore;
+import com.transfer.infrastructure.memory.InMemoryStore;
+import com.transfer.infrastructure.memory.InMemoryTransferRepository;
+import com.transfer.infrastructure.memory.InMemoryTransferRetryQueue;
+import com.transfer.service.TransferService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatchUpExecutorTest {
+    private static final LocalDateTime TEN = LocalDateTime.of(2024, 3, 4, 10, 0);
+
+    @Test
+    void catchesUpOccurrencesMissedSinceThePersistedWatermark() throws InterruptedException {
+        Fixture fixture = new Fixture(false);
+        fixture.watermarkStore.save(instant(TEN.minusHours(1)));
+        RecurringTransfer missed = fixture.transfer("missed", "user-1", TEN.minusMinutes(30));
+        RecurringTransfer beforeWatermark = fixture.transfer("before", "user-1", TEN.minusMinutes(90));
+        try {
+            fixture.catchUp.tickStarted(TEN);
+            fixture.catchUp.tickCompleted(TEN.plusMinutes(1), Optional.empty());
+
+            awaitTrue(() -> fixture.watermarkStore.load().equals(Optional.of(instant(TEN.plusMinutes(1)))));
+            assertThat(fixture.store.transaction(missed.occurrenceId())).containsEntry("status", "success");
+            assertThat(fixture.store.transaction(beforeWatermark.occurrenceId())).isNull();
+        } finally {
+            fixture.catchUp.shutdown();
+        }
+    }
+
+    @Test
+    void holdsTheWatermarkAtTheOldestDeferredOccurrence() {
+        Fixture fixture = new Fixture(false);
+        try {
+            fixture.catchUp.tickStarted(TEN);
+            fixture.catchUp.tickCompleted(TEN.plusMinutes(1), Optional.of(TEN.minusMinutes(5)));
+            assertThat(fixture.watermarkStore.load()).contains(instant(TEN.minusMinutes(5)));
+
+            fixture.catchUp.tickStarted(TEN.plusMinutes(1));
+            fixture.catchUp.tickCompleted(TEN.plusMinutes(2), Optional.empty());
+            assertThat(fixture.watermarkStore.load()).contains(instant(TEN.plusMinutes(2)));
+        } finally {
+            fixture.catchUp.shutdown();
+        }
+    }
+
+    @Test
+    void keepsOneWatermarkPerPartitionAndStartsFromTheSharedOneWhenMissing() throws InterruptedException {
+        Fixture fixture = new Fixture(true);
+        String senderOfFirst = sender(0);
+        String senderOfSecond = sender(1);
+        // Ancien filigrane commun, et filigrane propre plus récent pour la seconde partition
+        fixture.watermarkStore.save(instant(TEN.minusHours(1)));
+        fixture.watermarkStore.savePartitions(List.of(1), instant(TEN.minusMinutes(20)));
+        RecurringTransfer first = fixture.transfer("first", senderOfFirst, TEN.minusMinutes(30));
+        RecurringTransfer second = fixture.transfer("second", senderOfSecond, TEN.minusMinutes(30));
+        try {
+            fixture.partitionManager.heartbeat();
+            fixture.catchUp.tickStarted(TEN);
+            fixture.catchUp.tickCompleted(TEN.plusMinutes(1), Optional.empty());
+
+            Map<Integer, Instant> expected = Map.of(0, instant(TEN.plusMinutes(1)), 1, instant(TEN.plusMinutes(1)));
+            awaitTrue(() -> fixture.watermarkStore.loadPartitions(List.of(0, 1)).equals(expected));
+            assertThat(fixture.store.transaction(first.occurrenceId())).containsEntry("status", "success");
+            assertThat(fixture.store.transaction(second.occurrenceId())).isNull();
+            // Le filigrane commun n'est plus avancé avec le partitionnement
+            assertThat(fixture.watermarkStore.load()).contains(instant(TEN.minusHours(1)));
+        } finally {
+            fixture.catchUp.shutdown();
+        }
+    }
+
+    private static String sender(int partition) {
+        for (int i = 0; ; i++) {
+            if (PartitionManager.partitionOf("user-" + i, 2) == partition) {
+                return "user-" + i;
+            }
+        }
+    }
+
+    private static Instant instant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition attendue").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static final class Fixture {
+        private final Clock clock = Clock.systemDefaultZone();
+        private final InMemoryStore store = new InMemoryStore(clock,
+            new InMemoryFaultInjector(Duration.ZERO, Duration.ZERO, 0.0),
+            new TransactionRetryMetrics(new SimpleMeterRegistry()), 5, 1_000);
+        private final InMemorySchedulerWatermarkStore watermarkStore = new InMemorySchedulerWatermarkStore();
+        private final PartitionManager partitionManager;
+        private final CatchUpExecutor catchUp;
+
+        private Fixture(boolean partitioned) {
+            TransferMetrics transferMetrics = new TransferMetrics(new SimpleMeterRegistry());
+            RetryPolicy retryPolicy = new RetryPolicy(clock, 3, Duration.ofMinutes(5), 2.0, Duration.ofHours(6), 0.5);
+            InMemoryTransferRepository repository = new InMemoryTransferRepository(store, clock, transferMetrics,
+                new InMemoryTransferRetryQueue(), retryPolicy);
+            partitionManager = new PartitionManager(new InMemoryPartitionLeaseStore(), clock,
+                new SimpleMeterRegistry(), partitioned, 2, Duration.ofSeconds(30), "instance-1", 10_000);
+            FirestoreCallGuard firestoreCallGuard = new FirestoreCallGuard(clock, new SimpleMeterRegistry(), false,
+                32, 4, 256, 0.7, Duration.ofSeconds(2), Duration.ofSeconds(5), 50, 20, 0.5, Duration.ofSeconds(30), 5);
+            catchUp = new CatchUpExecutor(repository, new TransferService(repository, clock),
+                new IndexedDueTransferSource(repository, clock, watermarkStore, partitionManager), partitionManager,
+                watermarkStore, firestoreCallGuard, new SequentialTransferDispatcher(), new SimpleMeterRegistry(),
+                true, 1_000, Duration.ofHours(24));
+            store.saveUser("recipient", "+221770000001", 0);
+        }
+
+        private RecurringTransfer transfer(String id, String sender, LocalDateTime nextExecution) {
+            store.saveUser(sender, "+22177" + sender.hashCode(), 1_000_000);
+            RecurringTransfer transfer = RecurringTransfer.builder()
+                .id(id)
+                .fromUserId(sender)
+                .toPhone("+221770000001")
+                .amount(2500.0)
+                .frequency(RecurringFrequency.daily)
+                .startDate(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .executionTime(nextExecution.toLocalTime())
+                .isActive(true)
+                .build();
+            transfer.setNextExecution(nextExecution);
+            store.saveTransfer(transfer);
+            return transfer;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.transfer.scheduler;
+
+import com.transfer.domain.RecurringFrequency;
+import com.transfer.domain.RecurringTransfer;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static com.transfer.domain.OccurrenceCalculator.toEpochMinute;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactTransferSetTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 4, 10, 0);
+    private static final long START = toEpochMinute(NOW);
+
+    @Test
+    void materializesDueTransfersWithAllTheirFields() {
+        CompactTransferSet set = new CompactTransferSet(START, 16);
+        RecurringTransfer transfer = transfer("transfer-1", RecurringFrequency.monthly, NOW.plusMinutes(30));
+        transfer.setEndDate(LocalDateTime.of(2025, 1, 1, 0, 0));
+        transfer.setLastExecuted(LocalDateTime.of(2024, 2, 4, 10, 30));
+        set.schedule(transfer);
+
+        assertThat(set.advanceTo(START + 29)).isEmpty();
+        List<RecurringTransfer> due = set.advanceTo(START + 30);
+
+        assertThat(due).hasSize(1);
+        assertThat(due.get(0)).usingRecursiveComparison().ignoringFields("nextExecutionMinute").isEqualTo(transfer);
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotFireTransfersDueOnAnotherDayAtTheSameMinute() {
+        CompactTransferSet set = new CompactTransferSet(START, 16);
+        set.schedule(transfer("today", RecurringFrequency.daily, NOW.plusMinutes(5)));
+        set.schedule(transfer("next-month", RecurringFrequency.monthly, NOW.plusMonths(1).plusMinutes(5)));
+
+        assertThat(ids(set.advanceTo(START + 5))).containsExactly("today");
+        assertThat(set.advanceTo(START + 6 + 1440)).isEmpty();
+        assertThat(ids(set.advanceTo(toEpochMinute(NOW.plusMonths(1).plusMinutes(5))))).containsExactly("next-month");
+    }
+
+    @Test
+    void firesEveryMissedMinuteAfterALongGap() {
+        CompactTransferSet set = new CompactTransferSet(START, 16);
+        set.schedule(transfer("a", RecurringFrequency.daily, NOW.plusMinutes(1)));
+        set.schedule(transfer("b", RecurringFrequency.weekly, NOW.plusDays(3)));
+        set.schedule(transfer("c", RecurringFrequency.yearly, NOW.plusDays(20)));
+
+        assertThat(ids(set.advanceTo(START + 10 * 1440))).containsExactly("a", "b");
+        assertThat(ids(set.advanceTo(START + 20 * 1440))).containsExactly("c");
+    }
+
+    @Test
+    void firesPastDeadlinesAtTheNextAdvance() {
+        CompactTransferSet set = new CompactTransferSet(START, 16);
+        set.advanceTo(START + 10);
+        set.schedule(transfer("late", RecurringFrequency.daily, NOW.plusMinutes(2)));
+
+        assertThat(ids(set.advanceTo(START + 11))).containsExactly("late");
+    }
+
+    @Test
+    void rescheduleMovesTheTransferAndRemoveDropsIt() {
+        CompactTransferSet set = new CompactTransferSet(START, 16);
+        RecurringTransfer moved = transfer("moved", RecurringFrequency.daily, NOW.plusMinutes(5));
+        set.schedule(moved);
+        set.schedule(transfer("removed", RecurringFrequency.daily, NOW.plusMinutes(5)));
+        moved.setNextExecution(NOW.plusMinutes(8));
+        set.schedule(moved);
+
+        assertThat(set.remove("removed")).isTrue();
+        assertThat(set.remove("unknown")).isFalse();
+        assertThat(set.advanceTo(START + 7)).isEmpty();
+        assertThat(ids(set.advanceTo(START + 8))).containsExactly("moved");
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    @Test
+    void inactiveTransfersAreRemoved() {
+        CompactTransferSet set = new CompactTransferSet(START, 16);
+        RecurringTransfer transfer = transfer("a", RecurringFrequency.daily, NOW.plusMinutes(5));
+        set.schedule(transfer);
+        transfer.setActive(false);
+        set.schedule(transfer);
+
+        assertThat(set.size()).isZero();
+        assertThat(set.advanceTo(START + 5)).isEmpty();
+    }
+
+    @Test
+    void growsBeyondItsExpectedSizeAndReusesFreedSlots() {
+        CompactTransferSet set = new CompactTransferSet(START, 16);
+        for (int i = 0; i < 5_000; i++) {
+            set.schedule(transfer("transfer-" + i, RecurringFrequency.daily, NOW.plusMinutes(1 + i % 3_000)));
+        }
+        for (int i = 0; i < 5_000; i += 2) {
+            set.remove("transfer-" + i);
+        }
+        for (int i = 5_000; i < 6_000; i++) {
+            set.schedule(transfer("transfer-" + i, RecurringFrequency.daily, NOW.plusMinutes(1)));
+        }
+
+        assertThat(set.size()).isEqualTo(3_500);
+        List<RecurringTransfer> due = set.advanceTo(START + 3_000);
+        assertThat(due).hasSize(3_500);
+        assertThat(ids(due)).doesNotHaveDuplicates().contains("transfer-1", "transfer-4999", "transfer-5999");
+    }
+
+    private static List<String> ids(List<RecurringTransfer> transfers) {
+        return transfers.stream().map(RecurringTransfer::getId).toList();
+    }
+
+    private static RecurringTransfer transfer(String id, RecurringFrequency frequency, LocalDateTime nextExecution) {
+        RecurringTransfer transfer = RecurringTransfer.builder()
+            .id(id)
+            .fromUserId("user-1")
+            .toPhone("+221770000001")
+            .amount(2500.0)
+            .frequency(frequency)
+            .startDate(LocalDateTime.of(2024, 1, 1, 0, 0))
+            .executionTime(LocalTime.of(nextExecution.getHour(), nextExecution.getMinute()))
+            .description("Loyer")
+            .isActive(true)
+            .build();
+        transfer.setNextExecution(nextExecution);
+        return transfer;
+    }
+}
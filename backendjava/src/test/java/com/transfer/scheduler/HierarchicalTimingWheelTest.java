@@ -0,0 +1,111 @@
+package com.transfer.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    // 10h30 le dixième jour epoch
+    private static final long START = 10 * MINUTES_PER_DAY + 10 * 60 + 30;
+
+    @Test
+    void firesInTheMinuteSlotOfTheCurrentHour() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(START);
+        wheel.schedule("a", "a", START + 5);
+
+        assertThat(wheel.advanceTo(START + 4)).isEmpty();
+        assertThat(wheel.advanceTo(START + 5)).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cascadesFromHourAndDaySlotsDownToTheMinute() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(START);
+        long laterToday = START + 3 * 60 + 7;
+        long inThreeDays = START + 3 * MINUTES_PER_DAY + 42;
+        wheel.schedule("hour", "hour", laterToday);
+        wheel.schedule("day", "day", inThreeDays);
+
+        assertThat(wheel.advanceTo(laterToday - 1)).isEmpty();
+        assertThat(wheel.advanceTo(laterToday)).containsExactly("hour");
+        assertThat(wheel.advanceTo(inThreeDays - 1)).isEmpty();
+        assertThat(wheel.advanceTo(inThreeDays)).containsExactly("day");
+    }
+
+    @Test
+    void promotesOverflowEntriesBeyondTheDaySlots() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(START);
+        long inTwoYears = START + 730 * MINUTES_PER_DAY;
+        wheel.schedule("overflow", "overflow", inTwoYears);
+
+        assertThat(wheel.advanceTo(inTwoYears - 1)).isEmpty();
+        assertThat(wheel.advanceTo(inTwoYears)).containsExactly("overflow");
+    }
+
+    @Test
+    void keepsDaySlotsApartAfterTheWheelWrapsAround() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(START);
+        // Même case de jour (400 jours d'écart) : la seconde échéance passe par le débordement
+        long tomorrow = START + MINUTES_PER_DAY;
+        long tomorrowNextTurn = tomorrow + 400 * MINUTES_PER_DAY;
+        wheel.schedule("first", "first", tomorrow);
+        wheel.schedule("second", "second", tomorrowNextTurn);
+        // Jour juste avant le tour complet : sa case a déjà été parcourue aujourd'hui
+        long lastDaySlot = START + 399 * MINUTES_PER_DAY;
+        wheel.schedule("last", "last", lastDaySlot);
+
+        assertThat(wheel.advanceTo(tomorrow)).containsExactly("first");
+        assertThat(wheel.advanceTo(lastDaySlot - 1)).isEmpty();
+        assertThat(wheel.advanceTo(lastDaySlot)).containsExactly("last");
+        assertThat(wheel.advanceTo(tomorrowNextTurn - 1)).isEmpty();
+        assertThat(wheel.advanceTo(tomorrowNextTurn)).containsExactly("second");
+    }
+
+    @Test
+    void firesPastEntriesAtTheNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(START);
+        wheel.schedule("late", "late", START - 10);
+
+        assertThat(wheel.advanceTo(START - 1)).containsExactly("late");
+    }
+
+    @Test
+    void rescheduleAndCancelReplaceTheEarlierEntry() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(START);
+        wheel.schedule("a", "v1", START + 2 * MINUTES_PER_DAY);
+        wheel.schedule("a", "v2", START + 5);
+        wheel.schedule("b", "b", START + 5);
+        wheel.cancel("b");
+
+        assertThat(wheel.advanceTo(START + 5)).containsExactly("v2");
+        assertThat(wheel.advanceTo(START + 3 * MINUTES_PER_DAY)).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void sameMinuteRescheduleReplacesOnlyThePayload() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(START);
+        wheel.schedule("a", "v1", START + 90);
+        wheel.schedule("a", "v2", START + 90);
+
+        assertThat(wheel.ids()).containsExactly("a");
+        assertThat(wheel.advanceTo(START + 90)).containsExactly("v2");
+    }
+
+    @Test
+    void scheduleFromCursorComputesTheMinuteFromTheCurrentCursor() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(START);
+        wheel.advanceTo(START + 9);
+
+        wheel.scheduleFromCursor("a", "a", cursor -> OptionalLong.of(cursor + 1));
+        wheel.schedule("b", "b", START + 20);
+        wheel.scheduleFromCursor("b", "b", cursor -> OptionalLong.empty());
+
+        assertThat(wheel.advanceTo(START + 10)).isEmpty();
+        assertThat(wheel.advanceTo(START + 11)).containsExactly("a");
+        assertThat(wheel.advanceTo(START + 20)).isEmpty();
+    }
+}